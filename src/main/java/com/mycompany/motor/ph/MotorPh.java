@@ -9,6 +9,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import models.Employee;
 import services.EmployeeCSVReader;
+import services.SSSContributionCalculator;
 import services.Worklogs;
 
 /**
@@ -32,6 +33,7 @@ public class MotorPh {
         // File paths for employee and attendance data
         String employeesFile = "src\\main\\java\\assets\\files\\employees.csv";
         String attendanceFile = "src\\main\\java\\assets\\files\\attendance.csv";
+        String sssSchedulesFile = "src\\main\\java\\assets\\files\\sss_contribution_schedules.csv";
 
         // Scanner for user input
         Scanner scanner = new Scanner(System.in);
@@ -42,6 +44,14 @@ public class MotorPh {
         PayrollController payrollController = new PayrollController();
         EmployeeCSVReader csvReader = new EmployeeCSVReader(employeesFile);
         Worklogs workLogs = new Worklogs();
+        workLogs.setParallelIngestion(true);
+
+        // Load the SSS contribution schedules; the built-in schedule is used if the file is unavailable
+        try {
+            SSSContributionCalculator.loadSchedules(sssSchedulesFile);
+        } catch (IOException | CsvValidationException e) {
+            logger.log(Level.WARNING, "Unable to load SSS schedules: " + e.getMessage(), e);
+        }
 
         // Log system startup
         logger.info("MotorPh system started.");
@@ -89,9 +99,8 @@ public class MotorPh {
                 case 3 -> {
                     logger.log(Level.INFO, "User selected: Search Employee by ID");
                     try {
-                        // Search for an employee by ID
-                        List<Employee> employees = csvReader.readEmployees();
-                        csvReader.searchEmployeeById(employees);
+                        // Search for an employee by ID in the employee index
+                        csvReader.searchEmployeeById();
                     } catch (IOException | CsvValidationException e) {
                         logger.log(Level.SEVERE, "Error searching employee data: " + e.getMessage(), e);
                         System.out.println("Error searching employee data. Please check the logs.");
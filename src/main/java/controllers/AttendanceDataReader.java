@@ -1,49 +1,62 @@
 package controllers;
 
-import com.opencsv.CSVReader;
+import models.AttendanceLog;
+import models.AttendanceMemory;
+import models.DateRange;
 import models.Employee;
 import com.opencsv.exceptions.CsvValidationException;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import static org.apache.poi.ss.usermodel.CellType.BOOLEAN;
-import static org.apache.poi.ss.usermodel.CellType.NUMERIC;
-import static org.apache.poi.ss.usermodel.CellType.STRING;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import utils.ColumnarSnapshot;
+import utils.FileHash;
+import utils.IntKeyMap;
+import utils.MappedCsvScanner;
+import utils.XlsxRowStreamer;
 
 public class AttendanceDataReader {
+
+    // Logger instance using java.util.logging
+    private static final Logger logger = Logger.getLogger(AttendanceDataReader.class.getName());
     
     private static final LocalTime REQUIRED_LOGIN_TIME = LocalTime.of(8,11); // 8:11 AM
     private static final LocalTime REQUIRED_LOGOUT_TIME = LocalTime.of(17, 0); // 7:00 PM
     private static final Duration LUNCH_BREAK_DURATION = Duration.ofHours(1); // 1-hour lunch break
-    
-     /**
-     * Gets the string value of a cell in an Excel sheet.
-     *
-     * @param cell The cell to read.
-     * @return The cell's value as a string.
-     */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return ""; // Return empty string for null cells
-        }
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
-        }
-    }
+    private static final int REQUIRED_LOGIN_MINUTE = REQUIRED_LOGIN_TIME.toSecondOfDay() / 60;
+
+    // Byte ranges smaller than this are not worth handing to a separate worker
+    private static final long MIN_RANGE_BYTES = 1L << 20;
+
+    // Markers for rows that were rejected while decoding a byte range
+    private static final int MISSING_FIELDS = -1;
+    private static final int UNPARSEABLE = -2;
+
+    // Layout of the compiled attendance snapshot: employee number, epoch day, log-in, log-out
+    private static final String SNAPSHOT_SCHEMA = "attendance-rows/1";
+
+    private boolean parallelIngestion;
+    private boolean useSnapshots = true;
+    private DateRange period = DateRange.ALL;
+
+    // How far the last CSV read got, so appended rows can be read on their own
+    private Checkpoint checkpoint;
+    // How much of the file the snapshot on disk covers, or -1 if this reader has not written or loaded one
+    private long snapshotOffset = -1;
+    // Native memory of the off-heap attendance logs of the current load
+    private AttendanceMemory memory;
     
      private static boolean isLate(String logIn) {
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("H:mm");
@@ -66,86 +79,420 @@ public class AttendanceDataReader {
         return totalHours;
     }
 
-    public void readAttendanceData(String filePath, Map<String, Employee> employees) throws IOException, CsvValidationException {
-        if (filePath.endsWith(".csv")) {
-            // Read CSV file using OpenCSV
-            try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
-                String[] nextLine;
-
-                // Skip the header
-                reader.readNext();
-
-                // Read and process each row of data
-                while ((nextLine = reader.readNext()) != null) {
-                    try {
-                        // Validate row length
-                        if (nextLine.length < 7) {
-                            System.err.println("Skipping invalid row: Missing fields");
-                            continue;
-                        }
-
-                        String employeeNumber = nextLine[0];
-                        String lastName = nextLine[1];
-                        String firstName = nextLine[2];
-                        String date = nextLine[3];
-                        String logIn = nextLine[4];
-                        String logOut = nextLine[5];
-                        String totalWorkedHoursDaily = nextLine[6];
-
-                        Employee employee = employees.get(employeeNumber);
-
-                        if (employee != null) {
-                            double workedHours = calculateWorkedHours(logIn, logOut);
-                            boolean isLate = isLate(logIn);
-                            employee.addAttendance(date, logIn, logOut, workedHours, isLate);
-                        } else {
-                            System.out.println("Employee not found for Employee #: " + employeeNumber);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Skipping invalid row: " + e.getMessage());
+    private static boolean isLate(int logInMinute) {
+        return logInMinute > REQUIRED_LOGIN_MINUTE;
+    }
+
+    private static double calculateWorkedHours(int logInMinute, int logOutMinute) {
+        double totalHours = (logOutMinute - logInMinute) / 60.0;
+
+        // Subtract 1 hour for lunch break
+        totalHours -= LUNCH_BREAK_DURATION.toMinutes() / 60.0;
+
+        return totalHours;
+    }
+
+    /**
+     * Enables or disables parallel ingestion of CSV attendance files. When enabled, the file is split
+     * into byte ranges aligned to record boundaries and each range is decoded on a fork-join worker.
+     * The decoded rows are merged in file order, so the result matches the sequential path exactly.
+     *
+     * @param parallelIngestion {@code true} to decode byte ranges in parallel.
+     */
+    public void setParallelIngestion(boolean parallelIngestion) {
+        this.parallelIngestion = parallelIngestion;
+    }
+
+    /**
+     * Enables or disables the compiled binary snapshot kept next to a CSV attendance file. When
+     * enabled, a snapshot that still matches the CSV is loaded instead of parsing the text, and a
+     * missing or stale snapshot is rebuilt after parsing.
+     *
+     * @param useSnapshots {@code true} to read and write snapshots.
+     */
+    public void setUseSnapshots(boolean useSnapshots) {
+        this.useSnapshots = useSnapshots;
+    }
+
+    /**
+     * Limits the attendance read to a date range, such as the pay period of a payroll run. Rows
+     * dated outside the range are rejected on their date alone, before their times are parsed or
+     * their hours calculated. Rows loaded from a snapshot are filtered by date the same way; a
+     * snapshot is only written by a read that keeps every row.
+     *
+     * @param period The dates to keep; {@link DateRange#ALL} keeps every row.
+     */
+    public void setPeriod(DateRange period) {
+        this.period = period;
+    }
+
+    /**
+     * Reads only the rows appended to a CSV attendance file since this reader last read it, and
+     * merges them into the attendance the employees already hold. The reader remembers how many
+     * bytes and rows it has consumed together with a checksum of those bytes; if the file no longer
+     * starts with the same bytes it was rewritten rather than appended, so the employees' attendance
+     * is cleared and the whole file is read again. The same happens for Excel files, for a file
+     * this reader has not read before, and for a file whose last read ended inside a quoted field.
+     *
+     * The consumed bytes are hashed again to verify them, so a correction made in place is noticed,
+     * but the checksum of the appended rows extends the previous one and the snapshot only gains
+     * the appended rows, so neither is rebuilt from the start of the file.
+     *
+     * @param filePath  The path to the attendance data file (CSV or Excel).
+     * @param employees The employees holding the previously read attendance, keyed by employee number.
+     * @return {@code true} if only the appended rows were read; {@code false} if the file was read in full.
+     * @throws IOException            If the file cannot be read.
+     * @throws CsvValidationException If the file is invalid.
+     */
+    public boolean readAppendedAttendanceData(String filePath, Map<String, Employee> employees)
+            throws IOException, CsvValidationException {
+        Path source = Path.of(filePath);
+        if (checkpoint != null && checkpoint.source().equals(source) && checkpoint.period().equals(period)) {
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size >= checkpoint.offset()
+                        && MappedCsvScanner.isLineStart(channel, checkpoint.offset())
+                        && FileHash.hash(channel, 0, checkpoint.offset()) == checkpoint.prefixHash().value()) {
+                    if (size > checkpoint.offset()) {
+                        AttendanceChunk tail = decodeAndMerge(channel, checkpoint.offset(), size,
+                                IntKeyMap.ofDecimalKeys(employees));
+                        consume(source, channel, size, tail);
                     }
+                    return true;
+                }
+            }
+            logger.log(Level.INFO, "Attendance file was rewritten, reading it again: {0}", filePath);
+        }
+
+        for (Employee employee : employees.values()) {
+            employee.clearAttendance();
+        }
+        readAttendanceData(filePath, employees);
+        return false;
+    }
+
+    /**
+     * Reads a CSV attendance file through a memory-mapped channel. Employee number, date, log-in
+     * and log-out are decoded straight from the mapped bytes into primitives. A snapshot that
+     * covers the start of the file is used for those rows and only the rest is decoded.
+     *
+     * @param filePath  The path to the CSV file.
+     * @param employees The employees to attach attendance to, keyed by employee number.
+     * @throws IOException If the file cannot be read.
+     */
+    private void readMappedCsv(String filePath, Map<String, Employee> employees) throws IOException {
+        Path source = Path.of(filePath);
+        checkpoint = null;
+        snapshotOffset = -1;
+        // Rows carry employee numbers as ints, so they are joined without building key strings
+        IntKeyMap<Employee> employeesByNumber = IntKeyMap.ofDecimalKeys(employees);
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (useSnapshots) {
+                // A matching compiled snapshot holds exactly the rows its part of the CSV decodes to.
+                // Snapshots are only written where a record ends outside quotes, so the line break
+                // before the covered part is all that needs checking.
+                ColumnarSnapshot snapshot = ColumnarSnapshot.loadPrefix(source, SNAPSHOT_SCHEMA);
+                if (snapshot != null && MappedCsvScanner.isLineStart(channel, snapshot.getSourceSize())) {
+                    AttendanceChunk rows = AttendanceChunk.fromSnapshot(snapshot);
+                    rows.mergeInto(employeesByNumber, period);
+                    snapshotOffset = snapshot.getSourceSize();
+                    checkpoint = new Checkpoint(source, snapshot.getSourceSize(), rows.size,
+                            snapshot.getSourceHashState(), period);
+                    if (size > snapshot.getSourceSize()) {
+                        AttendanceChunk tail = decodeAndMerge(channel, snapshot.getSourceSize(), size, employeesByNumber);
+                        consume(source, channel, size, tail);
+                    }
+                    return;
+                }
+            }
+
+            long dataStart = MappedCsvScanner.skipHeader(channel);
+            AttendanceChunk rows = decodeAndMerge(channel, dataStart, size, employeesByNumber);
+            consume(source, channel, size, rows);
+        }
+    }
+
+    /**
+     * Decodes the records in {@code [from, to)}, in parallel byte ranges when enabled, and merges
+     * them into the employees in file order.
+     *
+     * @return The decoded rows dated in the period, in file order.
+     */
+    private AttendanceChunk decodeAndMerge(FileChannel channel, long from, long to, IntKeyMap<Employee> employees)
+            throws IOException {
+        int parts = parallelIngestion ? ForkJoinPool.getCommonPoolParallelism() * 4 : 1;
+        long[] bounds = MappedCsvScanner.splitRanges(channel, from, to, parts, MIN_RANGE_BYTES);
+        List<AttendanceChunk> chunks;
+        if (bounds.length <= 2) {
+            chunks = List.of(decodeRange(channel, bounds[0], bounds[1], period));
+        } else {
+            try {
+                chunks = IntStream.range(0, bounds.length - 1)
+                        .parallel()
+                        .mapToObj(i -> {
+                            try {
+                                return decodeRange(channel, bounds[i], bounds[i + 1], period);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!MappedCsvScanner.endsAt(bounds, chunks.stream().mapToLong(chunk -> chunk.end).toArray())) {
+                // A split fell inside a quoted field, so the ranges are not whole records
+                chunks = List.of(decodeRange(channel, bounds[0], bounds[bounds.length - 1], period));
+            }
+        }
+
+        // Merge in file order so the per-employee attendance matches a sequential read
+        for (AttendanceChunk chunk : chunks) {
+            chunk.mergeInto(employees, period);
+        }
+        return AttendanceChunk.concat(chunks);
+    }
+
+    /**
+     * Records that the file has been consumed up to {@code size} after {@code rows} were read from
+     * where the checkpoint left off, or from the start of the file if there is none. The checksum is
+     * extended over the new bytes only, and the rows are appended to the snapshot, or written as a
+     * new one after a full read, so the next run starts from there too. Rows read for a period are
+     * only part of the file, so they never go into the snapshot.
+     *
+     * A file that ends inside a quoted field, such as one caught in the middle of an append, cannot
+     * be resumed at its end, so no checkpoint is kept and the next read starts over.
+     */
+    private void consume(Path source, FileChannel channel, long size, AttendanceChunk rows) throws IOException {
+        Checkpoint previous = checkpoint;
+        long from = previous != null ? previous.offset() : 0;
+        checkpoint = null;
+        // The consumed bytes before the checkpoint are known to end outside quotes
+        if ((MappedCsvScanner.countQuotes(channel, from, size) & 1) != 0) {
+            snapshotOffset = -1;
+            return;
+        }
+
+        FileHash.Running hash = previous != null ? previous.prefixHash().copy() : new FileHash.Running();
+        hash.update(channel, from, size);
+        int rowCount = rows.size + (previous != null ? previous.rowCount() : 0);
+        if (useSnapshots && period.isAll()) {
+            if (previous == null) {
+                rows.toSnapshot().writeFor(source, hash);
+                snapshotOffset = size;
+            } else if (snapshotOffset == from && rows.toSnapshot().appendFor(source, hash, from)) {
+                snapshotOffset = size;
+            }
+        }
+        checkpoint = new Checkpoint(source, size, rowCount, hash, period);
+    }
+
+    /**
+     * Decodes the records in one byte range into primitive columns, skipping rows dated outside
+     * {@code period}. The date is checked before the times are parsed.
+     */
+    private static AttendanceChunk decodeRange(FileChannel channel, long from, long to, DateRange period)
+            throws IOException {
+        AttendanceChunk chunk = new AttendanceChunk();
+
+        chunk.end = MappedCsvScanner.scan(channel, from, to, (buffer, start, end, fieldCount) -> {
+            // Validate row length
+            if (fieldCount < 7) {
+                chunk.add(MISSING_FIELDS, 0, 0, 0);
+                return;
+            }
+
+            int epochDay = MappedCsvScanner.parseEpochDay(buffer, start[3], end[3]);
+            if (epochDay != Integer.MIN_VALUE && !period.contains(epochDay)) {
+                return; // Outside the period; the rest of the row is never parsed
+            }
+            int employeeNumber = MappedCsvScanner.parseInt(buffer, start[0], end[0]);
+            int logIn = MappedCsvScanner.parseMinuteOfDay(buffer, start[4], end[4]);
+            int logOut = MappedCsvScanner.parseMinuteOfDay(buffer, start[5], end[5]);
+
+            if (employeeNumber < 0 || epochDay == Integer.MIN_VALUE || logIn < 0 || logOut < 0) {
+                chunk.add(UNPARSEABLE, 0, 0, 0);
+                return;
+            }
+            chunk.add(employeeNumber, epochDay, logIn, logOut);
+        });
+        return chunk;
+    }
+
+    /**
+     * Attendance rows decoded from one byte range, held as parallel primitive columns.
+     * Invalid rows are kept in place as negative employee numbers so their messages keep file order.
+     */
+    private static final class AttendanceChunk {
+        private int[] employeeNumbers = new int[1024];
+        private int[] epochDays = new int[1024];
+        private short[] logIns = new short[1024];
+        private short[] logOuts = new short[1024];
+        private int size;
+        // Where the scan of the chunk's byte range ended
+        private long end;
+
+        static AttendanceChunk concat(List<AttendanceChunk> chunks) {
+            if (chunks.size() == 1) {
+                return chunks.get(0);
+            }
+            AttendanceChunk all = new AttendanceChunk();
+            for (AttendanceChunk chunk : chunks) {
+                all.addAll(chunk);
+            }
+            return all;
+        }
+
+        void addAll(AttendanceChunk other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.employeeNumbers[i], other.epochDays[i], other.logIns[i], other.logOuts[i]);
+            }
+        }
+
+        static AttendanceChunk fromSnapshot(ColumnarSnapshot snapshot) {
+            AttendanceChunk chunk = new AttendanceChunk();
+            chunk.size = snapshot.getRowCount();
+            chunk.employeeNumbers = snapshot.getIntColumn(0);
+            chunk.epochDays = snapshot.getIntColumn(1);
+            chunk.logIns = snapshot.getShortColumn(2);
+            chunk.logOuts = snapshot.getShortColumn(3);
+            return chunk;
+        }
+
+        ColumnarSnapshot.Writer toSnapshot() {
+            return new ColumnarSnapshot.Writer(SNAPSHOT_SCHEMA, size)
+                    .addIntColumn(employeeNumbers)
+                    .addIntColumn(epochDays)
+                    .addShortColumn(logIns)
+                    .addShortColumn(logOuts);
+        }
+
+        void add(int employeeNumber, int epochDay, int logIn, int logOut) {
+            if (size == employeeNumbers.length) {
+                int capacity = Math.max(size * 2, 16);
+                employeeNumbers = Arrays.copyOf(employeeNumbers, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                logIns = Arrays.copyOf(logIns, capacity);
+                logOuts = Arrays.copyOf(logOuts, capacity);
+            }
+            employeeNumbers[size] = employeeNumber;
+            epochDays[size] = epochDay;
+            logIns[size] = (short) logIn;
+            logOuts[size] = (short) logOut;
+            size++;
+        }
+
+        void mergeInto(IntKeyMap<Employee> employees, DateRange period) {
+            for (int i = 0; i < size; i++) {
+                int employeeNumber = employeeNumbers[i];
+                if (employeeNumber == MISSING_FIELDS) {
+                    System.err.println("Skipping invalid row: Missing fields");
+                    continue;
+                }
+                if (employeeNumber == UNPARSEABLE) {
+                    System.err.println("Skipping invalid row: Unparseable employee number, date or time");
+                    continue;
+                }
+                if (!period.contains(epochDays[i])) {
+                    continue; // Loaded from the snapshot, but outside the period being read
+                }
+
+                Employee employee = employees.get(employeeNumber);
+
+                if (employee != null) {
+                    double workedHours = calculateWorkedHours(logIns[i], logOuts[i]);
+                    boolean isLate = isLate(logIns[i]);
+                    employee.addAttendance(epochDays[i], logIns[i], logOuts[i], workedHours, isLate);
+                } else {
+                    System.out.println("Employee not found for Employee #: " + employeeNumber);
                 }
             }
+        }
+    }
+
+    /**
+     * The part of a CSV attendance file consumed so far: the byte offset reached, the number of
+     * rows read up to it, the {@link FileHash} of the bytes before it, kept so it can be extended
+     * over appended bytes, and the period the rows were limited to. A checkpoint always lies where
+     * a record ends outside quotes.
+     */
+    private record Checkpoint(Path source, long offset, int rowCount, FileHash.Running prefixHash,
+                              DateRange period) {
+    }
+
+    /**
+     * Reads an attendance file in full into the employees. Each employee gets a new, empty attendance
+     * log; with off-heap storage the logs of the load share one {@link AttendanceMemory}, and the
+     * memory of the previous load is released once the new one has been read, so attendance logs
+     * from before this call must no longer be used.
+     *
+     * @param filePath  The path to the attendance data file (CSV or Excel).
+     * @param employees The employees to attach attendance to, keyed by employee number.
+     * @throws IOException            If the file cannot be read.
+     * @throws CsvValidationException If the file is invalid.
+     */
+    public void readAttendanceData(String filePath, Map<String, Employee> employees) throws IOException, CsvValidationException {
+        AttendanceMemory previous = memory;
+        memory = AttendanceLog.getStorage() == AttendanceLog.Storage.OFF_HEAP ? new AttendanceMemory() : null;
+        if (memory != null || previous != null) {
+            for (Employee employee : employees.values()) {
+                employee.replaceAttendance(AttendanceLog.create(memory));
+            }
+        }
+        try {
+            readAttendanceFile(filePath, employees);
+        } finally {
+            if (previous != null) {
+                previous.close();
+            }
+        }
+    }
+
+    private void readAttendanceFile(String filePath, Map<String, Employee> employees) throws IOException, CsvValidationException {
+        if (filePath.endsWith(".csv")) {
+            // Scan the memory-mapped CSV file without creating per-field strings
+            readMappedCsv(filePath, employees);
         } else if (filePath.endsWith(".xlsx")) {
-            // Read Excel file using Apache POI
-            try (FileInputStream file = new FileInputStream(filePath);
-                 Workbook workbook = new XSSFWorkbook(file)) {
-
-                Sheet sheet = workbook.getSheetAt(0); // Get the first sheet
-                for (Row row : sheet) {
-                    if (row.getRowNum() == 0) {
-                        continue; // Skip the header row
+            checkpoint = null; // Workbooks are always read in full
+            snapshotOffset = -1;
+            // Stream the first sheet with POI's event API instead of loading the whole workbook
+            XlsxRowStreamer.stream(filePath, false, row -> {
+                if (row.getRowNum() == 0) {
+                    return; // Skip the header row
+                }
+
+                try {
+                    // Validate row length
+                    if (row.getLastCellNum() < 7) {
+                        System.err.println("Skipping invalid row: Missing fields");
+                        return;
                     }
 
-                    try {
-                        // Validate row length
-                        if (row.getLastCellNum() < 7) {
-                            System.err.println("Skipping invalid row: Missing fields");
-                            continue;
-                        }
-
-                        String employeeNumber = getCellValue(row.getCell(0));
-                        String lastName = getCellValue(row.getCell(1));
-                        String firstName = getCellValue(row.getCell(2));
-                        String date = getCellValue(row.getCell(3));
-                        String logIn = getCellValue(row.getCell(4));
-                        String logOut = getCellValue(row.getCell(5));
-                        String totalWorkedHoursDaily = getCellValue(row.getCell(6));
-
-                        Employee employee = employees.get(employeeNumber);
-
-                        if (employee != null) {
-                            double workedHours = calculateWorkedHours(logIn, logOut);
-                            boolean isLate = isLate(logIn);
-                            employee.addAttendance(date, logIn, logOut, workedHours, isLate);
-                        } else {
-                            System.out.println("Employee not found for Employee #: " + employeeNumber);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Skipping invalid row: " + e.getMessage());
+                    // Reject rows outside the period on their date, before any time is parsed
+                    String date = row.getCellValue(3);
+                    if (!period.isAll() && !period.contains(AttendanceLog.parseEpochDay(date))) {
+                        return;
                     }
+
+                    String employeeNumber = row.getCellValue(0);
+                    String logIn = row.getCellValue(4);
+                    String logOut = row.getCellValue(5);
+
+                    Employee employee = employees.get(employeeNumber);
+
+                    if (employee != null) {
+                        double workedHours = calculateWorkedHours(logIn, logOut);
+                        boolean isLate = isLate(logIn);
+                        employee.addAttendance(date, logIn, logOut, workedHours, isLate);
+                    } else {
+                        System.out.println("Employee not found for Employee #: " + employeeNumber);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Skipping invalid row: " + e.getMessage());
                 }
-            }
+            });
         } else {
             throw new IllegalArgumentException("Unsupported file format. Only .csv and .xlsx files are supported.");
         }
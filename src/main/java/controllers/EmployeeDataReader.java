@@ -2,65 +2,68 @@ package controllers;
 
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
-import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import models.Employee;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import models.EmployeeTable;
+import utils.ColumnarSnapshot;
+import utils.Money;
+import utils.XlsxRowStreamer;
 
 public class EmployeeDataReader {
 
-    // Helper method to parse double with a default value
-    private double parseDoubleWithDefault(String value, double defaultValue) {
-        if (value == null || value.trim().isEmpty()) {
+    // Layout of the compiled employee snapshot: 13 text columns followed by 6 amounts in centavos
+    private static final String SNAPSHOT_SCHEMA = "employees/2";
+
+    private boolean useSnapshots = true;
+
+    /**
+     * Enables or disables the compiled binary snapshot kept next to a CSV employee file. When
+     * enabled, a snapshot that still matches the CSV is loaded instead of parsing the text, and a
+     * missing or stale snapshot is rebuilt after parsing.
+     *
+     * @param useSnapshots {@code true} to read and write snapshots.
+     */
+    public void setUseSnapshots(boolean useSnapshots) {
+        this.useSnapshots = useSnapshots;
+    }
+
+    // Helper method to parse an amount such as "90,000" with a default value
+    private Money parseMoneyWithDefault(String value, Money defaultValue) {
+        if (value == null || value.isBlank()) {
             return defaultValue; // Return default value for empty or null strings
         }
         try {
-            // Remove commas from the string
-            String cleanedValue = value.replace(",", "");
-            return Double.parseDouble(cleanedValue);
-        } catch (NumberFormatException e) {
+            // Commas are skipped by the parser itself, so no cleaned copy of the string is made
+            return Money.parse(value);
+        } catch (NumberFormatException | ArithmeticException e) {
             System.err.println("Invalid number format for value: " + value);
             return defaultValue;
         }
     }
 
-    /**
-     * Gets the string value of a cell in an Excel sheet.
-     *
-     * @param cell The cell to read.
-     * @return The cell's value as a string.
-     */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return ""; // Return empty string for null cells
-        }
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> "";
-        };
-    }
-
     /**
      * Reads employee data from a CSV or Excel file and returns a map of employees.
      *
      * @param filePath The path to the file (CSV or Excel).
-     * @return A map of employees where the key is the employee number and the value is the Employee object.
+     * @return A map of employees in file order, where the key is the employee number and the value is the Employee object.
      * @throws IOException              If an I/O error occurs while reading the file.
      * @throws CsvValidationException   If the CSV file is invalid.
      * @throws IllegalArgumentException If the file format is unsupported.
      */
     public Map<String, Employee> readEmployeeData(String filePath) throws IOException, CsvValidationException {
-        Map<String, Employee> employees = new HashMap<>();
+        Map<String, Employee> employees = new LinkedHashMap<>();
+
+        if (filePath.endsWith(".csv") && useSnapshots) {
+            // A fresh compiled snapshot holds exactly the employees the CSV would parse to
+            ColumnarSnapshot snapshot = ColumnarSnapshot.load(Path.of(filePath), SNAPSHOT_SCHEMA);
+            if (snapshot != null) {
+                return fromSnapshot(snapshot);
+            }
+        }
 
         if (filePath.endsWith(".csv")) {
             // Read CSV file using OpenCSV
@@ -73,9 +76,6 @@ public class EmployeeDataReader {
                 // Read and process each row of data
                 while ((nextLine = reader.readNext()) != null) {
                     try {
-                        // Debugging: Print raw row data
-                        System.out.println("Raw row data: " + Arrays.toString(nextLine));
-
                         // Validate row length
                         if (nextLine.length < 19) {
                             System.err.println("Skipping invalid row: Missing fields");
@@ -98,12 +98,12 @@ public class EmployeeDataReader {
                         String immediateSupervisor = nextLine[12].trim();
 
                         // Parse numeric fields with validation
-                        double basicSalary = parseDoubleWithDefault(nextLine[13].trim(), 0.0);
-                        double riceSubsidy = parseDoubleWithDefault(nextLine[14].trim(), 0.0);
-                        double phoneAllowance = parseDoubleWithDefault(nextLine[15].trim(), 0.0);
-                        double clothingAllowance = parseDoubleWithDefault(nextLine[16].trim(), 0.0);
-                        double grossSemiMonthlyRate = parseDoubleWithDefault(nextLine[17].trim(), 0.0);
-                        double hourlyRate = parseDoubleWithDefault(nextLine[18].trim(), 0.0);
+                        Money basicSalary = parseMoneyWithDefault(nextLine[13], Money.ZERO);
+                        Money riceSubsidy = parseMoneyWithDefault(nextLine[14], Money.ZERO);
+                        Money phoneAllowance = parseMoneyWithDefault(nextLine[15], Money.ZERO);
+                        Money clothingAllowance = parseMoneyWithDefault(nextLine[16], Money.ZERO);
+                        Money grossSemiMonthlyRate = parseMoneyWithDefault(nextLine[17], Money.ZERO);
+                        Money hourlyRate = parseMoneyWithDefault(nextLine[18], Money.ZERO);
 
                         // Create and add the employee
                         employees.put(employeeNumber, new Employee(
@@ -118,61 +118,120 @@ public class EmployeeDataReader {
                     }
                 }
             }
-        } else if (filePath.endsWith(".xlsx")) {
-            // Read Excel file using Apache POI
-            try (FileInputStream file = new FileInputStream(filePath);
-                 Workbook workbook = new XSSFWorkbook(file)) {
-
-                Sheet sheet = workbook.getSheetAt(0); // Get the first sheet
-                for (Row row : sheet) {
-                    if (row.getRowNum() == 0) {
-                        continue; // Skip the header row
-                    }
-
-                    try {
-                        // Validate row length
-                        if (row.getPhysicalNumberOfCells() < 19) {
-                            System.err.println("Skipping invalid row: Missing fields in row " + row.getRowNum());
-                            continue;
-                        }
 
-                        String employeeNumber = getCellValue(row.getCell(0));
-                        String lastName = getCellValue(row.getCell(1));
-                        String firstName = getCellValue(row.getCell(2));
-                        String birthday = getCellValue(row.getCell(3));
-                        String address = getCellValue(row.getCell(4));
-                        String phoneNumber = getCellValue(row.getCell(5));
-                        String sssNumber = getCellValue(row.getCell(6));
-                        String philhealthNumber = getCellValue(row.getCell(7));
-                        String tinNumber = getCellValue(row.getCell(8));
-                        String pagibigNumber = getCellValue(row.getCell(9));
-                        String status = getCellValue(row.getCell(10));
-                        String position = getCellValue(row.getCell(11));
-                        String immediateSupervisor = getCellValue(row.getCell(12));
-                        double basicSalary = parseDoubleWithDefault(getCellValue(row.getCell(13)), 0.0);
-                        double riceSubsidy = parseDoubleWithDefault(getCellValue(row.getCell(14)), 0.0);
-                        double phoneAllowance = parseDoubleWithDefault(getCellValue(row.getCell(15)), 0.0);
-                        double clothingAllowance = parseDoubleWithDefault(getCellValue(row.getCell(16)), 0.0);
-                        double grossSemiMonthlyRate = parseDoubleWithDefault(getCellValue(row.getCell(17)), 0.0);
-                        double hourlyRate = parseDoubleWithDefault(getCellValue(row.getCell(18)), 0.0);
+            if (useSnapshots) {
+                toSnapshot(employees).writeFor(Path.of(filePath));
+            }
+        } else if (filePath.endsWith(".xlsx")) {
+            // Stream the first sheet with POI's event API instead of loading the whole workbook
+            XlsxRowStreamer.stream(filePath, false, row -> {
+                if (row.getRowNum() == 0) {
+                    return; // Skip the header row
+                }
 
-                        // Create and add the employee
-                        employees.put(employeeNumber, new Employee(
-                                employeeNumber, lastName, firstName, birthday, address, phoneNumber,
-                                sssNumber, philhealthNumber, tinNumber, pagibigNumber, status,
-                                position, immediateSupervisor, basicSalary, riceSubsidy, phoneAllowance,
-                                clothingAllowance, grossSemiMonthlyRate, hourlyRate
-                        ));
-                    } catch (Exception e) {
-                        System.err.println("Skipping invalid row: " + e.getMessage() + " in row " + row.getRowNum());
-                        e.printStackTrace();
+                try {
+                    // Validate row length
+                    if (row.getPhysicalNumberOfCells() < 19) {
+                        System.err.println("Skipping invalid row: Missing fields in row " + row.getRowNum());
+                        return;
                     }
+
+                    String employeeNumber = row.getCellValue(0);
+                    String lastName = row.getCellValue(1);
+                    String firstName = row.getCellValue(2);
+                    String birthday = row.getCellValue(3);
+                    String address = row.getCellValue(4);
+                    String phoneNumber = row.getCellValue(5);
+                    String sssNumber = row.getCellValue(6);
+                    String philhealthNumber = row.getCellValue(7);
+                    String tinNumber = row.getCellValue(8);
+                    String pagibigNumber = row.getCellValue(9);
+                    String status = row.getCellValue(10);
+                    String position = row.getCellValue(11);
+                    String immediateSupervisor = row.getCellValue(12);
+                    Money basicSalary = parseMoneyWithDefault(row.getCellValue(13), Money.ZERO);
+                    Money riceSubsidy = parseMoneyWithDefault(row.getCellValue(14), Money.ZERO);
+                    Money phoneAllowance = parseMoneyWithDefault(row.getCellValue(15), Money.ZERO);
+                    Money clothingAllowance = parseMoneyWithDefault(row.getCellValue(16), Money.ZERO);
+                    Money grossSemiMonthlyRate = parseMoneyWithDefault(row.getCellValue(17), Money.ZERO);
+                    Money hourlyRate = parseMoneyWithDefault(row.getCellValue(18), Money.ZERO);
+
+                    // Create and add the employee
+                    employees.put(employeeNumber, new Employee(
+                            employeeNumber, lastName, firstName, birthday, address, phoneNumber,
+                            sssNumber, philhealthNumber, tinNumber, pagibigNumber, status,
+                            position, immediateSupervisor, basicSalary, riceSubsidy, phoneAllowance,
+                            clothingAllowance, grossSemiMonthlyRate, hourlyRate
+                    ));
+                } catch (Exception e) {
+                    System.err.println("Skipping invalid row: " + e.getMessage() + " in row " + row.getRowNum());
+                    e.printStackTrace();
                 }
-            }
+            });
         } else {
             throw new IllegalArgumentException("Unsupported file format. Only .csv and .xlsx files are supported.");
         }
 
         return employees;
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the snapshot columns for a set of parsed employees.
+     */
+    private static ColumnarSnapshot.Writer toSnapshot(Map<String, Employee> employees) {
+        int rows = employees.size();
+        String[][] text = new String[13][rows];
+        int row = 0;
+        for (Employee e : employees.values()) {
+            String[] fields = {
+                    e.getEmployeeNumber(), e.getLastName(), e.getFirstName(), e.getBirthday(), e.getAddress(),
+                    e.getPhoneNumber(), e.getSssNumber(), e.getPhilhealthNumber(), e.getTinNumber(),
+                    e.getPagibigNumber(), e.getStatus(), e.getPosition(), e.getImmediateSupervisor()
+            };
+            for (int c = 0; c < fields.length; c++) {
+                text[c][row] = fields[c];
+            }
+            row++;
+        }
+
+        ColumnarSnapshot.Writer writer = new ColumnarSnapshot.Writer(SNAPSHOT_SCHEMA, rows);
+        for (String[] column : text) {
+            writer.addStringColumn(column);
+        }
+        // The amounts are already columns in an EmployeeTable
+        EmployeeTable table = new EmployeeTable(employees.values());
+        writer.addLongColumn(table.getBasicSalaries())
+                .addLongColumn(table.getRiceSubsidies())
+                .addLongColumn(table.getPhoneAllowances())
+                .addLongColumn(table.getClothingAllowances())
+                .addLongColumn(table.getGrossSemiMonthlyRates())
+                .addLongColumn(table.getHourlyRates());
+        return writer;
+    }
+
+    /**
+     * Rebuilds the employees from a loaded snapshot, in their original file order.
+     */
+    private static Map<String, Employee> fromSnapshot(ColumnarSnapshot snapshot) {
+        String[][] text = new String[13][];
+        for (int c = 0; c < text.length; c++) {
+            text[c] = snapshot.getStringColumn(c);
+        }
+        long[][] amounts = new long[6][];
+        for (int c = 0; c < amounts.length; c++) {
+            amounts[c] = snapshot.getLongColumn(13 + c);
+        }
+
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        for (int i = 0; i < snapshot.getRowCount(); i++) {
+            employees.put(text[0][i], new Employee(
+                    text[0][i], text[1][i], text[2][i], text[3][i], text[4][i], text[5][i],
+                    text[6][i], text[7][i], text[8][i], text[9][i], text[10][i],
+                    text[11][i], text[12][i], Money.ofCentavos(amounts[0][i]), Money.ofCentavos(amounts[1][i]),
+                    Money.ofCentavos(amounts[2][i]), Money.ofCentavos(amounts[3][i]), Money.ofCentavos(amounts[4][i]),
+                    Money.ofCentavos(amounts[5][i])
+            ));
+        }
+        return employees;
+    }
+}
@@ -1,17 +1,33 @@
 package controllers;
 
 import com.opencsv.exceptions.CsvValidationException;
+import models.AttendanceIndex;
+import models.AttendanceLog;
+import models.DateRange;
 import models.Employee;
-import services.PhilHealthCalculator;
+import models.EmployeeTable;
+import models.PayrollResult;
+import services.DeductionCache;
+import services.Deductions;
+import services.EmployeeRepository;
 import services.SSSContributionCalculator;
-import services.PagIbigContributionCalculator;
+import services.SSSContributionSchedule;
+import services.StatutoryTables;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
-import services.WithholdingTaxCalculator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import utils.FileHash;
+import utils.Money;
 
 /**
  * The PayrollController class handles the processing of payroll data.
@@ -19,7 +35,16 @@ import services.WithholdingTaxCalculator;
  * overtime, and deductions (SSS, PhilHealth, Pag-IBIG), and generates a payroll receipt.
  */
 public class PayrollController {
-    
+
+    // A pay period covers 4 weeks of 5 working days
+    static final int WEEK_RECORDS = 5;
+    static final int PERIOD_RECORDS = 4 * WEEK_RECORDS;
+
+    // Payroll kept between recalculations, one ledger per employee and attendance file
+    private final Map<List<String>, PayrollLedger> ledgers = new ConcurrentHashMap<>();
+    // Rendered output of earlier runs, reused while the inputs are unchanged
+    private final PayrollOutputCache outputCache = PayrollOutputCache.fromSystemProperties();
+
     /**
      * Processes the payroll for employees based on the provided employee and attendance files.
      *
@@ -27,94 +52,387 @@ public class PayrollController {
      * @param attendanceFile  The path to the attendance data file (CSV or Excel).
      */
     public void processPayroll(String employeesFile, String attendanceFile) {
+        processPayroll(employeesFile, attendanceFile, DateRange.ALL);
+    }
+
+    /**
+     * Processes the payroll for one pay period. Only attendance dated from {@code start} to
+     * {@code end} is read and paid; rows outside the period are rejected on their date while the
+     * attendance file is read.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @param start           The first date of the pay period.
+     * @param end             The last date of the pay period, inclusive.
+     * @throws IllegalArgumentException If {@code end} is before {@code start}.
+     */
+    public void processPayroll(String employeesFile, String attendanceFile, LocalDate start, LocalDate end) {
+        processPayroll(employeesFile, attendanceFile, DateRange.of(start, end));
+    }
+
+    private void processPayroll(String employeesFile, String attendanceFile, DateRange period) {
         try {
-            AttendanceDataReader attreader = new AttendanceDataReader();
-            EmployeeDataReader empreader = new EmployeeDataReader();
-            PayrollPrinter printer = new PayrollPrinter();
-            // Step 1: Read employee data
-            Map<String, Employee> employees =  empreader.readEmployeeData(employeesFile);
-
-            // Step 2: Read attendance data
-            attreader.readAttendanceData(attendanceFile, employees);
-
-            // Step 3: Calculate salary, overtime, and deductions for every 4 weeks
-            for (Employee employee : employees.values()) {
-                System.out.println(employee);
-                System.out.println("Records:");
-
-                // Group attendance records into chunks of 4 weeks (20 working days)
-                List<String> attendanceRecords = employee.getAttendanceRecords();
-                DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-
-                int chunkSize = 20; // 4 weeks = 20 working days (assuming 5 working days per week)
-                double totalHoursFor4Weeks = 0; // Accumulate hours for 4 weeks
-                double totalOvertimePayFor4Weeks = 0; // Accumulate overtime pay for 4 weeks
-                int chunkCounter = 0;
-
-                // Variables for weekly calculations
-                double totalWeeklyHours = 0; // Accumulate hours for the current week
-                int weekCounter = 0; // Track the number of weeks processed
-
-                for (int i = 0; i < attendanceRecords.size(); i++) {
-                    String record = attendanceRecords.get(i);
-                    String[] parts = record.split(", ");
-                    String dateStr = parts[0].replace("Date: ", "");
-                    double workedHours = Double.parseDouble(parts[3].replace("Worked Hours: ", ""));
-                    boolean isLate = Boolean.parseBoolean(parts[4].replace("Is Late: ", ""));
-                    System.out.println("Worked Hours for " + dateStr + ": " + workedHours + ", Is Late: " + isLate);
-
-                    // Add hours to the weekly total
-                    totalWeeklyHours += workedHours;
-                    totalHoursFor4Weeks += workedHours; // Accumulate hours for the current 4-week chunk
-                    chunkCounter++;
-
-                    // Check if a week (5 working days) has been completed
-                    if (chunkCounter % 5 == 0 || i == attendanceRecords.size() - 1) {
-                        weekCounter++;
-
-                        // Calculate overtime for the week
-                        double overtimeHours = Math.max(totalWeeklyHours - 40, 0); // Hours beyond 40
-                        double overtimePay = overtimeHours * employee.getHourlyRate() * 1.25; // Overtime rate is 25% more
-
-                        // Add overtime pay to the total for 4 weeks
-                        totalOvertimePayFor4Weeks += overtimePay;
-
-                        System.out.printf("Week %d: Total Hours = %.2f, Overtime Hours = %.2f, Overtime Pay = %.2f%n",
-                                weekCounter, totalWeeklyHours, overtimeHours, overtimePay);
-
-                        // Reset weekly hours for the next week
-                        totalWeeklyHours = 0;
-                    }
-
-                    // If we have processed 20 days or reached the end of the list
-                    if (chunkCounter == chunkSize || i == attendanceRecords.size() - 1) {
-                        double salaryFor4Weeks = totalHoursFor4Weeks * employee.getHourlyRate();
-
-                        // Add overtime pay to the salary
-                        double totalSalaryFor4Weeks = salaryFor4Weeks + totalOvertimePayFor4Weeks;
-
-                        // Calculate deductions
-                        double withHoldingTax = WithholdingTaxCalculator.calculateWithholdingTax(employee.getBasicSalary());
-                        double sssContribution = SSSContributionCalculator.calculateSSSContribution(employee.getBasicSalary());
-                        double philHealthEmployeeShare = PhilHealthCalculator.calculateEmployeeShare(employee.getBasicSalary());
-                        double[] pagIbigContribution = PagIbigContributionCalculator.calculatePagIbigContribution(employee.getBasicSalary());
-                        double allowance = employee.getBasicSalary() / 4;
-                        
-
-                        // Display the receipt
-                        printer.displayReceipt(employee, totalSalaryFor4Weeks, sssContribution, philHealthEmployeeShare, pagIbigContribution, withHoldingTax, allowance);
-
-                        // Reset for the next 4-week chunk
-                        totalHoursFor4Weeks = 0;
-                        totalOvertimePayFor4Weeks = 0;
-                        chunkCounter = 0;
-                    }
+            renderPayroll(employeesFile, attendanceFile, period, PayslipRenderer.Format.TEXT, System.out);
+            System.out.flush();
+        } catch (IOException | CsvValidationException e) {
+            System.err.println("Error processing payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Processes the payroll and writes the payslips to a file in the given format.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @param format          The payslip format.
+     * @param outputFile      The file to write.
+     */
+    public void processPayroll(String employeesFile, String attendanceFile, PayslipRenderer.Format format, Path outputFile) {
+        try (OutputStream out = Files.newOutputStream(outputFile)) {
+            renderPayroll(employeesFile, attendanceFile, DateRange.ALL, format, out);
+        } catch (IOException | CsvValidationException e) {
+            System.err.println("Error processing payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the payslips of a run to a stream, encoded in the stream's charset (see
+     * {@link PayslipRenderer#PayslipRenderer(PayslipRenderer.Format, OutputStream)}). If the same
+     * inputs were rendered before, the stored output is copied without reading or calculating
+     * anything; otherwise the output is written to the stream and recorded into the cache as it
+     * is rendered. When the cache is disabled or fails, the output is rendered directly.
+     */
+    private void renderPayroll(String employeesFile, String attendanceFile, DateRange period,
+                               PayslipRenderer.Format format, OutputStream out) throws IOException, CsvValidationException {
+        Charset charset = PayslipRenderer.charsetOf(out);
+        String key = outputCache.keyFor(employeesFile, attendanceFile, period, format, charset);
+        if (key != null && outputCache.copyTo(key, out)) {
+            return;
+        }
+
+        try (PayrollOutputCache.Recording recording = key == null ? null : outputCache.record(key, out)) {
+            // Payslips are written in large blocks rather than line by line
+            try (PayslipRenderer renderer = new PayslipRenderer(format, recording != null ? recording : out, charset)) {
+                render(calculatePayrolls(employeesFile, attendanceFile, period), renderer);
+            }
+            if (recording != null) {
+                recording.commit();
+            }
+        }
+    }
+
+    /**
+     * Processes the payroll as a restartable batch run and writes the payslips to a file. Each
+     * employee's result is appended to a journal as soon as it is calculated. If a run over the
+     * same inputs stopped part way, the employees already in its journal are restored instead of
+     * calculated again, and the output is the same as that of an uninterrupted run. A run whose
+     * input files change while they are being read is refused, since its journal could not tell
+     * which contents its results came from.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @param format          The payslip format.
+     * @param outputFile      The file to write.
+     * @param journalFile     The journal of the run, kept after it completes.
+     * @param syncPolicy      How often journal records are forced to disk.
+     */
+    public void processPayrollBatch(String employeesFile, String attendanceFile, PayslipRenderer.Format format,
+                                    Path outputFile, Path journalFile, PayrollJournal.SyncPolicy syncPolicy) {
+        processPayrollBatch(employeesFile, attendanceFile, DateRange.ALL, format, outputFile, journalFile, syncPolicy);
+    }
+
+    /**
+     * Processes the payroll of one pay period as a restartable batch run. A journal written for a
+     * different period is never resumed; it is started over.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @param start           The first date of the pay period.
+     * @param end             The last date of the pay period, inclusive.
+     * @param format          The payslip format.
+     * @param outputFile      The file to write.
+     * @param journalFile     The journal of the run, kept after it completes.
+     * @param syncPolicy      How often journal records are forced to disk.
+     * @throws IllegalArgumentException If {@code end} is before {@code start}.
+     */
+    public void processPayrollBatch(String employeesFile, String attendanceFile, LocalDate start, LocalDate end,
+                                    PayslipRenderer.Format format, Path outputFile, Path journalFile,
+                                    PayrollJournal.SyncPolicy syncPolicy) {
+        processPayrollBatch(employeesFile, attendanceFile, DateRange.of(start, end), format, outputFile, journalFile,
+                syncPolicy);
+    }
+
+    private void processPayrollBatch(String employeesFile, String attendanceFile, DateRange period,
+                                     PayslipRenderer.Format format, Path outputFile, Path journalFile,
+                                     PayrollJournal.SyncPolicy syncPolicy) {
+        try {
+            // The journal is keyed on the files as they were read, so they are hashed on both sides
+            // of the load and a file changed in between is never journaled
+            long employeesHash = FileHash.hash(Path.of(employeesFile));
+            long attendanceHash = FileHash.hash(Path.of(attendanceFile));
+            EmployeeTable employees = EmployeeRepository.forFile(employeesFile)
+                    .getEmployeeTableWithAttendance(attendanceFile, period);
+            if (FileHash.hash(Path.of(employeesFile)) != employeesHash
+                    || FileHash.hash(Path.of(attendanceFile)) != attendanceHash) {
+                System.err.println("Error processing payroll: the input files changed while they were read");
+                return;
+            }
+
+            List<PayrollResult> results;
+            try (PayrollJournal journal = PayrollJournal.open(journalFile, employeesHash, attendanceHash,
+                    StatutoryTables.fingerprint(), period, syncPolicy)) {
+                if (journal.getCompletedCount() > 0) {
+                    System.out.println("Resuming payroll run: " + journal.getCompletedCount() + " of "
+                            + employees.size() + " employees already journaled.");
                 }
+                DeductionSource deductions = new DeductionSource(employees.getBasicSalaries());
+                results = IntStream.range(0, employees.size()).parallel()
+                        .mapToObj(row -> {
+                            PayrollResult result = journal.restore(employees.getEmployee(row));
+                            if (result == null) {
+                                result = calculatePayroll(employees, row, deductions);
+                                try {
+                                    journal.append(result);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            }
+                            return result;
+                        })
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
 
-                System.out.println("-----------------------------");
+            try (PayslipRenderer renderer = new PayslipRenderer(format, outputFile)) {
+                render(results, renderer);
             }
         } catch (IOException | CsvValidationException e) {
             System.err.println("Error processing payroll: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Recalculates the payroll after corrections to the employee or attendance data and prints
+     * which payslips changed. The first call for a pair of files calculates everything; later
+     * calls reuse every pay period whose attendance, rates and SSS schedule are unchanged.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @return The change report, or {@code null} if the files could not be read.
+     */
+    public PayrollLedger.ChangeReport recalculatePayroll(String employeesFile, String attendanceFile) {
+        PayrollLedger ledger = ledgers.computeIfAbsent(List.of(employeesFile, attendanceFile),
+                files -> new PayrollLedger(employeesFile, attendanceFile));
+        try {
+            PayrollLedger.ChangeReport report = ledger.refresh();
+            System.out.print(report);
+            return report;
+        } catch (IOException | CsvValidationException e) {
+            System.err.println("Error recalculating payroll: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Exports the payroll to an Excel file: either the payroll register, one row per pay period,
+     * or individual payslips.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @param outputFile      The .xlsx file to write.
+     * @param payslips        {@code true} to export payslips, {@code false} for the register.
+     * @param grouping        How register rows are split into sheets; ignored for payslips.
+     */
+    public void exportPayrollToExcel(String employeesFile, String attendanceFile, Path outputFile, boolean payslips,
+                                     PayrollExcelExporter.Grouping grouping) {
+        try {
+            List<PayrollResult> results = calculatePayrolls(employeesFile, attendanceFile, DateRange.ALL);
+            PayrollExcelExporter exporter = new PayrollExcelExporter();
+            if (payslips) {
+                exporter.exportPayslips(results, outputFile);
+            } else {
+                exporter.exportRegister(results, outputFile, grouping);
+            }
+        } catch (IOException | CsvValidationException e) {
+            System.err.println("Error exporting payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns an employee's attendance totals for any date range, such as a semi-monthly cutoff,
+     * an ISO week or a calendar month. The totals come from the attendance index built when the
+     * attendance is loaded, so no records are walked.
+     *
+     * @param employeesFile   The path to the employee data file (CSV or Excel).
+     * @param attendanceFile  The path to the attendance data file (CSV or Excel).
+     * @param employeeNumber  The employee's number.
+     * @param start           The first date of the range.
+     * @param end             The last date of the range, inclusive.
+     * @return The totals, or {@code null} if there is no such employee.
+     * @throws IOException            If an I/O error occurs while reading either file.
+     * @throws CsvValidationException If a CSV file is invalid.
+     */
+    public AttendanceIndex.Totals getAttendanceTotals(String employeesFile, String attendanceFile, String employeeNumber,
+                                                      LocalDate start, LocalDate end)
+            throws IOException, CsvValidationException {
+        EmployeeRepository repository = EmployeeRepository.forFile(employeesFile);
+        repository.getEmployeesWithAttendance(attendanceFile);
+        Employee employee = repository.getIndex().findByEmployeeNumber(employeeNumber);
+        return employee == null ? null : employee.getAttendanceIndex().totals(start, end);
+    }
+
+    /**
+     * Calculates the payroll of every employee from the attendance in a period, in employee order.
+     */
+    private List<PayrollResult> calculatePayrolls(String employeesFile, String attendanceFile, DateRange period)
+            throws IOException, CsvValidationException {
+        // Step 1 and 2: Read employee and attendance data, reusing what is already loaded
+        EmployeeTable employees = EmployeeRepository.forFile(employeesFile)
+                .getEmployeeTableWithAttendance(attendanceFile, period);
+
+        // Deductions depend only on the basic salary and the SSS schedule, so each distinct
+        // salary is computed once per run; the first use of a schedule computes all of them in one batch
+        DeductionSource deductions = new DeductionSource(employees.getBasicSalaries());
+
+        // Step 3: Calculate salary, overtime, and deductions for every 4 weeks. Employees are
+        // independent, so they are computed in parallel; the results keep the employee order
+        List<PayrollResult> results = IntStream.range(0, employees.size()).parallel()
+                .mapToObj(row -> calculatePayroll(employees, row, deductions))
+                .toList();
+        deductions.logStatistics();
+        return results;
+    }
+
+    /**
+     * Step 4: Renders the results in order.
+     */
+    private static void render(List<PayrollResult> results, PayslipRenderer renderer) throws IOException {
+        for (PayrollResult result : results) {
+            renderer.render(result);
+        }
+    }
+
+    /**
+     * Calculates the weekly overtime and the salary and deductions for every 4 weeks of an
+     * employee's attendance. Nothing is printed, so employees can be calculated concurrently.
+     *
+     * @param employees  The employee table.
+     * @param row        The employee's row in the table.
+     * @param deductions The run's deductions.
+     * @return The employee's payroll result.
+     */
+    private static PayrollResult calculatePayroll(EmployeeTable employees, int row, DeductionSource deductions) {
+        Employee employee = employees.getEmployee(row);
+        PayrollResult result = new PayrollResult(employee);
+
+        // Group attendance records into chunks of 4 weeks (20 working days)
+        int recordCount = employee.getAttendance().size();
+        for (int first = 0; first < recordCount; first += PERIOD_RECORDS) {
+            calculatePeriod(employees, row, first, deductions, result);
+        }
+        return result;
+    }
+
+    /**
+     * Calculates one pay period: the weeks and the salary and deductions of the (up to) 20
+     * attendance records starting at {@code first}. Periods never share a week, so each can be
+     * calculated on its own; the weeks and the pay period are added to {@code result}.
+     *
+     * @param employees  The employee table.
+     * @param row        The employee's row in the table.
+     * @param first      The index of the period's first attendance record, a multiple of 20.
+     * @param deductions The run's deductions.
+     * @param result     The result to add the weeks and the pay period to.
+     */
+    static void calculatePeriod(EmployeeTable employees, int row, int first, DeductionSource deductions,
+                                PayrollResult result) {
+        AttendanceLog attendance = employees.getEmployee(row).getAttendance();
+        int end = Math.min(first + PERIOD_RECORDS, attendance.size());
+
+        Money hourlyRate = employees.getHourlyRate(row);
+        Money basicSalary = employees.getBasicSalary(row);
+        // Hours are summed as exact hundredths; the log keeps them to the hundredth
+        long totalHundredthsFor4Weeks = 0; // Accumulate hours for 4 weeks
+        Money totalOvertimePayFor4Weeks = Money.ZERO; // Accumulate overtime pay for 4 weeks
+
+        // Variables for weekly calculations
+        long totalWeeklyHundredths = 0; // Accumulate hours for the current week
+        int weekCounter = first / WEEK_RECORDS; // Weeks of the earlier periods
+
+        for (int i = first; i < end; i++) {
+            // Add hours to the weekly total
+            long workedHundredths = Math.round(attendance.getWorkedHours(i) * 100);
+            totalWeeklyHundredths += workedHundredths;
+            totalHundredthsFor4Weeks += workedHundredths; // Accumulate hours for the current 4-week chunk
+
+            // Check if a week (5 working days) has been completed
+            if ((i - first + 1) % WEEK_RECORDS == 0 || i == end - 1) {
+                weekCounter++;
+
+                // Calculate overtime for the week
+                long overtimeHundredths = Math.max(totalWeeklyHundredths - 40 * 100, 0); // Hours beyond 40
+                Money overtimePay = hourlyRate.times(overtimeHundredths * 125, 100 * 100); // Overtime rate is 25% more
+
+                // Add overtime pay to the total for 4 weeks
+                totalOvertimePayFor4Weeks = totalOvertimePayFor4Weeks.plus(overtimePay);
+
+                result.addWeek(new PayrollResult.Week(i, weekCounter, totalWeeklyHundredths, overtimeHundredths, overtimePay));
+
+                // Reset weekly hours for the next week
+                totalWeeklyHundredths = 0;
+            }
+        }
+
+        int last = end - 1;
+        Money salaryFor4Weeks = hourlyRate.times(totalHundredthsFor4Weeks, 100);
+
+        // Add overtime pay to the salary
+        Money totalSalaryFor4Weeks = salaryFor4Weeks.plus(totalOvertimePayFor4Weeks);
+
+        // Look up deductions, using the SSS schedule in force at the period's end
+        Deductions periodDeductions = deductions.get(basicSalary, scheduleAt(attendance, last));
+        Money allowance = basicSalary.divide(4);
+
+        result.addPayPeriod(new PayrollResult.PayPeriod(last, totalSalaryFor4Weeks, periodDeductions.getSSSContribution(),
+                periodDeductions.getPhilHealthEmployeeShare(), periodDeductions.getPagIbigContribution(),
+                periodDeductions.getWithholdingTax(), allowance));
+    }
+
+    /**
+     * Returns the SSS schedule in force on the date of an attendance record.
+     */
+    static SSSContributionSchedule scheduleAt(AttendanceLog attendance, int record) {
+        return SSSContributionCalculator.scheduleFor(LocalDate.ofEpochDay(attendance.getEpochDay(record)));
+    }
+
+    /**
+     * The deductions of one payroll run. Each distinct salary is looked up in a shared
+     * {@link DeductionCache}, and the first use of an SSS schedule preloads every salary in one batch.
+     */
+    static final class DeductionSource {
+        private final long[] basicSalaries;
+        private final DeductionCache cache = new DeductionCache();
+        private final Map<SSSContributionSchedule, Boolean> preloadedSchedules = new ConcurrentHashMap<>();
+
+        /**
+         * @param basicSalaries Every employee's basic salary in centavos, to preload the cache.
+         */
+        DeductionSource(long[] basicSalaries) {
+            this.basicSalaries = basicSalaries;
+        }
+
+        Deductions get(Money basicSalary, SSSContributionSchedule schedule) {
+            // Other threads needing the same schedule wait here until its batch is cached
+            preloadedSchedules.computeIfAbsent(schedule, s -> {
+                cache.preload(basicSalaries, s);
+                return Boolean.TRUE;
+            });
+            return cache.get(basicSalary, schedule);
+        }
+
+        void logStatistics() {
+            cache.logStatistics();
+        }
+    }
+}
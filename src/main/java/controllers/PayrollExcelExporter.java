@@ -0,0 +1,251 @@
+package controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import models.Employee;
+import models.PayrollResult;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import utils.Money;
+
+/**
+ * The PayrollExcelExporter class writes payroll results to .xlsx files with POI's streaming
+ * {@link SXSSFWorkbook}. Only a bounded window of rows per sheet is kept in memory; older rows are
+ * flushed to compressed temporary files, so a register of any size is written in constant memory.
+ *
+ * Two layouts are available: a payroll register with one row per pay period, optionally split into
+ * one sheet per supervisor or position in a single pass, and individual payslips laid out like the
+ * printed receipt.
+ */
+public class PayrollExcelExporter {
+
+    /**
+     * How register rows are distributed over sheets.
+     */
+    public enum Grouping {
+        /** All rows on one sheet. */
+        NONE,
+        /** One sheet per immediate supervisor. */
+        SUPERVISOR,
+        /** One sheet per position. */
+        POSITION
+    }
+
+    /** The default number of rows per sheet kept in memory. */
+    public static final int DEFAULT_ROW_WINDOW = 100;
+
+    private static final String[] REGISTER_HEADERS = {
+            "Employee Number", "Employee Name", "Position", "Immediate Supervisor", "Period End", "Total Salary",
+            "SSS Contribution", "PhilHealth Employee Share", "Pag-IBIG Employee Contribution",
+            "Pag-IBIG Employer Contribution", "Total Pag-IBIG Contribution", "Withholding Tax", "Allowance", "Net Salary"
+    };
+    private static final int[] REGISTER_WIDTHS = {16, 28, 28, 28, 12, 14, 14, 14, 14, 14, 14, 14, 14, 14};
+
+    private final int rowWindow;
+
+    /**
+     * Constructs an exporter with the default row window.
+     */
+    public PayrollExcelExporter() {
+        this(DEFAULT_ROW_WINDOW);
+    }
+
+    /**
+     * Constructs an exporter that keeps at most {@code rowWindow} rows per sheet in memory.
+     *
+     * @param rowWindow The number of rows per sheet kept in memory.
+     * @throws IllegalArgumentException If {@code rowWindow} is not positive.
+     */
+    public PayrollExcelExporter(int rowWindow) {
+        if (rowWindow <= 0) {
+            throw new IllegalArgumentException("The row window must be positive.");
+        }
+        this.rowWindow = rowWindow;
+    }
+
+    /**
+     * Writes the payroll register: one row per pay period, in the order of the results.
+     *
+     * @param results  The payroll results.
+     * @param file     The .xlsx file to write.
+     * @param grouping How rows are distributed over sheets.
+     * @throws IOException If the file cannot be written.
+     */
+    public void exportRegister(List<PayrollResult> results, Path file, Grouping grouping) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow)) {
+            workbook.setCompressTempFiles(true);
+            Styles styles = new Styles(workbook);
+            Map<String, SXSSFSheet> sheets = new LinkedHashMap<>();
+            Set<String> sheetNames = new HashSet<>();
+
+            for (PayrollResult result : results) {
+                Employee employee = result.getEmployee();
+                String group = groupOf(employee, grouping);
+                SXSSFSheet sheet = sheets.computeIfAbsent(group,
+                        key -> createRegisterSheet(workbook, uniqueSheetName(key, sheetNames), styles));
+
+                for (PayrollResult.PayPeriod payPeriod : result.getPayPeriods()) {
+                    Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+                    Money[] pagIbigContribution = payPeriod.getPagIbigContribution();
+                    row.createCell(0).setCellValue(employee.getEmployeeNumber());
+                    row.createCell(1).setCellValue(employee.getFullname());
+                    row.createCell(2).setCellValue(employee.getPosition());
+                    row.createCell(3).setCellValue(employee.getImmediateSupervisor());
+                    row.createCell(4).setCellValue(LocalDate.ofEpochDay(
+                            employee.getAttendance().getEpochDay(payPeriod.getLastRecord())));
+                    row.getCell(4).setCellStyle(styles.date);
+                    setAmount(row, 5, payPeriod.getTotalSalary(), styles);
+                    setAmount(row, 6, payPeriod.getSSSContribution(), styles);
+                    setAmount(row, 7, payPeriod.getPhilHealthEmployeeShare(), styles);
+                    setAmount(row, 8, pagIbigContribution[0], styles);
+                    setAmount(row, 9, pagIbigContribution[1], styles);
+                    setAmount(row, 10, pagIbigContribution[2], styles);
+                    setAmount(row, 11, payPeriod.getWithholdingTax(), styles);
+                    setAmount(row, 12, payPeriod.getAllowance(), styles);
+                    setAmount(row, 13, payPeriod.getNetSalary(), styles);
+                }
+            }
+            if (sheets.isEmpty()) {
+                createRegisterSheet(workbook, "Payroll Register", styles);
+            }
+            write(workbook, file);
+        }
+    }
+
+    /**
+     * Writes individual payslips, one block per pay period, laid out like the printed receipt.
+     *
+     * @param results The payroll results.
+     * @param file    The .xlsx file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void exportPayslips(List<PayrollResult> results, Path file) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow)) {
+            workbook.setCompressTempFiles(true);
+            Styles styles = new Styles(workbook);
+            SXSSFSheet sheet = workbook.createSheet("Payslips");
+            sheet.setColumnWidth(0, 32 * 256);
+            sheet.setColumnWidth(1, 28 * 256);
+            int rowIndex = 0;
+
+            for (PayrollResult result : results) {
+                Employee employee = result.getEmployee();
+                for (PayrollResult.PayPeriod payPeriod : result.getPayPeriods()) {
+                    Money[] pagIbigContribution = payPeriod.getPagIbigContribution();
+                    Row title = sheet.createRow(rowIndex++);
+                    title.createCell(0).setCellValue("PAYROLL RECEIPT");
+                    title.getCell(0).setCellStyle(styles.header);
+                    setLabel(sheet.createRow(rowIndex++), "Employee", employee.getFullname());
+                    setLabel(sheet.createRow(rowIndex++), "Employee Number", employee.getEmployeeNumber());
+                    Row periodEnd = sheet.createRow(rowIndex++);
+                    periodEnd.createCell(0).setCellValue("Period End");
+                    periodEnd.createCell(1).setCellValue(LocalDate.ofEpochDay(
+                            employee.getAttendance().getEpochDay(payPeriod.getLastRecord())));
+                    periodEnd.getCell(1).setCellStyle(styles.date);
+                    setLabel(sheet.createRow(rowIndex++), "Total Salary", payPeriod.getTotalSalary(), styles);
+                    setLabel(sheet.createRow(rowIndex++), "SSS Contribution", payPeriod.getSSSContribution(), styles);
+                    setLabel(sheet.createRow(rowIndex++), "PhilHealth Employee Share", payPeriod.getPhilHealthEmployeeShare(), styles);
+                    setLabel(sheet.createRow(rowIndex++), "Pag-IBIG Employee Contribution", pagIbigContribution[0], styles);
+                    setLabel(sheet.createRow(rowIndex++), "Pag-IBIG Employer Contribution", pagIbigContribution[1], styles);
+                    setLabel(sheet.createRow(rowIndex++), "Total Pag-IBIG Contribution", pagIbigContribution[2], styles);
+                    setLabel(sheet.createRow(rowIndex++), "Withholding Tax", payPeriod.getWithholdingTax(), styles);
+                    setLabel(sheet.createRow(rowIndex++), "Allowance", payPeriod.getAllowance(), styles);
+                    setLabel(sheet.createRow(rowIndex++), "Net Salary", payPeriod.getNetSalary(), styles);
+                    rowIndex++; // Blank row between payslips
+                }
+            }
+            write(workbook, file);
+        }
+    }
+
+    private static String groupOf(Employee employee, Grouping grouping) {
+        String group = switch (grouping) {
+            case NONE -> "Payroll Register";
+            case SUPERVISOR -> employee.getImmediateSupervisor();
+            case POSITION -> employee.getPosition();
+        };
+        if (group == null || group.isBlank() || group.trim().equals("N/A")) {
+            return grouping == Grouping.SUPERVISOR ? "No Supervisor" : grouping == Grouping.POSITION ? "No Position" : group;
+        }
+        return group.trim();
+    }
+
+    /**
+     * Returns a valid sheet name for a group. Names are cut to Excel's 31 characters and compared
+     * case-insensitively, so distinct groups may clash; those get a numbered suffix.
+     */
+    private static String uniqueSheetName(String group, Set<String> usedNames) {
+        String base = WorkbookUtil.createSafeSheetName(group);
+        String name = base;
+        for (int suffix = 2; !usedNames.add(name.toLowerCase()); suffix++) {
+            String tag = " (" + suffix + ")";
+            name = base.substring(0, Math.min(base.length(), 31 - tag.length())) + tag;
+        }
+        return name;
+    }
+
+    private static SXSSFSheet createRegisterSheet(SXSSFWorkbook workbook, String name, Styles styles) {
+        SXSSFSheet sheet = workbook.createSheet(name);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < REGISTER_HEADERS.length; i++) {
+            header.createCell(i).setCellValue(REGISTER_HEADERS[i]);
+            header.getCell(i).setCellStyle(styles.header);
+            sheet.setColumnWidth(i, REGISTER_WIDTHS[i] * 256);
+        }
+        sheet.createFreezePane(0, 1);
+        return sheet;
+    }
+
+    private static void setAmount(Row row, int column, Money amount, Styles styles) {
+        row.createCell(column).setCellValue(amount.toDouble());
+        row.getCell(column).setCellStyle(styles.amount);
+    }
+
+    private static void setLabel(Row row, String label, String value) {
+        row.createCell(0).setCellValue(label);
+        row.createCell(1).setCellValue(value);
+    }
+
+    private static void setLabel(Row row, String label, Money amount, Styles styles) {
+        row.createCell(0).setCellValue(label);
+        setAmount(row, 1, amount, styles);
+    }
+
+    private static void write(SXSSFWorkbook workbook, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+
+    /**
+     * The cell styles shared by every sheet of a workbook.
+     */
+    private static class Styles {
+        private final CellStyle header;
+        private final CellStyle amount;
+        private final CellStyle date;
+
+        Styles(SXSSFWorkbook workbook) {
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            header = workbook.createCellStyle();
+            header.setFont(bold);
+            amount = workbook.createCellStyle();
+            amount.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+            date = workbook.createCellStyle();
+            date.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package controllers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import models.DateRange;
+import models.Employee;
+import models.PayrollResult;
+import utils.Money;
+
+/**
+ * The PayrollJournal class is a write-ahead journal for a batch payroll run. Every employee whose
+ * payroll has been calculated is appended as one record, so a run that dies part way can be
+ * restarted: the journaled employees are restored from their records and only the rest are
+ * calculated. The journal also shows which employees' payslips were completed before a failure.
+ *
+ * The journal starts with a header holding the {@link utils.FileHash} of the employee and
+ * attendance files, the {@link services.StatutoryTables} fingerprint and the pay period; a journal
+ * written for other inputs, other tables or another period is discarded when opened. Each record is
+ * length-prefixed and followed by a CRC-32, so a record torn by a crash is detected and cut off.
+ * How often records are forced to disk is set by a {@link SyncPolicy}.
+ *
+ * Records hold the calculated weeks and pay periods, not rendered payslips, so the output of a
+ * resumed run is rendered from the same values as an uninterrupted one.
+ */
+public final class PayrollJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x4D50484A; // "MPHJ"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+
+    /**
+     * How often appended records are forced to disk.
+     *
+     * @param records Force after this many records; 0 leaves it to the operating system.
+     */
+    public record SyncPolicy(int records) {
+
+        /**
+         * Validates the policy.
+         *
+         * @throws IllegalArgumentException If {@code records} is negative.
+         */
+        public SyncPolicy {
+            if (records < 0) {
+                throw new IllegalArgumentException("Sync interval cannot be negative.");
+            }
+        }
+
+        /**
+         * Never forces records; fastest, but records still in the OS cache are lost if the machine fails.
+         *
+         * @return The policy.
+         */
+        public static SyncPolicy never() {
+            return new SyncPolicy(0);
+        }
+
+        /**
+         * Forces every record before the next one is appended.
+         *
+         * @return The policy.
+         */
+        public static SyncPolicy everyRecord() {
+            return new SyncPolicy(1);
+        }
+
+        /**
+         * Forces the journal after every {@code records} records.
+         *
+         * @param records The number of records between forces.
+         * @return The policy.
+         */
+        public static SyncPolicy every(int records) {
+            return new SyncPolicy(records);
+        }
+    }
+
+    private final FileChannel channel;
+    private final SyncPolicy syncPolicy;
+    // Record payloads already in the journal, keyed by employee number
+    private final Map<String, byte[]> completed;
+    private int unsynced;
+
+    private PayrollJournal(FileChannel channel, SyncPolicy syncPolicy, Map<String, byte[]> completed) {
+        this.channel = channel;
+        this.syncPolicy = syncPolicy;
+        this.completed = completed;
+    }
+
+    /**
+     * Opens or creates the journal of a run over the given inputs. The records of an existing
+     * journal for the same inputs are kept, up to the first damaged one; a journal for other
+     * inputs is emptied.
+     *
+     * @param file              The journal file.
+     * @param employeesHash     The hash of the employee data file.
+     * @param attendanceHash    The hash of the attendance data file.
+     * @param tablesFingerprint The {@link services.StatutoryTables#fingerprint()} of the run.
+     * @param period            The pay period of the run.
+     * @param syncPolicy        When appended records are forced to disk.
+     * @return The journal.
+     * @throws IOException If the journal cannot be read or written.
+     */
+    public static PayrollJournal open(Path file, long employeesHash, long attendanceHash, long tablesFingerprint,
+                                      DateRange period, SyncPolicy syncPolicy) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Map<String, byte[]> completed = new HashMap<>();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC).putInt(VERSION).putLong(employeesHash).putLong(attendanceHash)
+                    .putLong(tablesFingerprint).putInt(period.startEpochDay()).putInt(period.endEpochDay())
+                    .flip();
+            long end = channel.size() >= HEADER_BYTES && headerMatches(channel, header)
+                    ? readRecords(channel, completed)
+                    : -1;
+            if (end < 0) {
+                // A new journal, or one written for other inputs
+                channel.truncate(0);
+                writeFully(channel, header, 0);
+                channel.force(true);
+                end = HEADER_BYTES;
+            } else {
+                channel.truncate(end); // Drop a torn final record
+            }
+            channel.position(end);
+            return new PayrollJournal(channel, syncPolicy, completed);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean headerMatches(FileChannel channel, ByteBuffer expected) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        return header.flip().equals(expected);
+    }
+
+    /**
+     * Reads every intact record after the header.
+     *
+     * @return The offset after the last intact record.
+     */
+    private static long readRecords(FileChannel channel, Map<String, byte[]> completed) throws IOException {
+        long size = channel.size();
+        long position = HEADER_BYTES;
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (position + 4 <= size) {
+            length.clear();
+            readFully(channel, length, position);
+            int payloadLength = length.flip().getInt();
+            if (payloadLength <= 0 || position + 4 + payloadLength + 4 > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(payloadLength + 4);
+            readFully(channel, record, position + 4);
+            byte[] payload = new byte[payloadLength];
+            record.flip().get(payload);
+            if (record.getInt() != checksum(payload)) {
+                break;
+            }
+            completed.put(readEmployeeNumber(ByteBuffer.wrap(payload)), payload);
+            position += 4 + payloadLength + 4;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the number of employees already in the journal.
+     *
+     * @return The journaled employee count.
+     */
+    public synchronized int getCompletedCount() {
+        return completed.size();
+    }
+
+    /**
+     * Rebuilds an employee's result from the journal.
+     *
+     * @param employee The employee, with the attendance the run was started with.
+     * @return The result, or {@code null} if the employee is not journaled yet.
+     */
+    public PayrollResult restore(Employee employee) {
+        byte[] payload;
+        synchronized (this) {
+            payload = completed.get(employee.getEmployeeNumber());
+        }
+        if (payload == null) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        readEmployeeNumber(in);
+        PayrollResult result = new PayrollResult(employee);
+        int weekCount = in.getInt();
+        for (int i = 0; i < weekCount; i++) {
+            result.addWeek(new PayrollResult.Week(in.getInt(), in.getInt(), in.getLong(), in.getLong(),
+                    Money.ofCentavos(in.getLong())));
+        }
+        int payPeriodCount = in.getInt();
+        for (int i = 0; i < payPeriodCount; i++) {
+            int lastRecord = in.getInt();
+            Money totalSalary = Money.ofCentavos(in.getLong());
+            Money sssContribution = Money.ofCentavos(in.getLong());
+            Money philHealthEmployeeShare = Money.ofCentavos(in.getLong());
+            Money[] pagIbigContribution = {
+                    Money.ofCentavos(in.getLong()), Money.ofCentavos(in.getLong()), Money.ofCentavos(in.getLong())
+            };
+            Money withholdingTax = Money.ofCentavos(in.getLong());
+            Money allowance = Money.ofCentavos(in.getLong());
+            result.addPayPeriod(new PayrollResult.PayPeriod(lastRecord, totalSalary, sssContribution,
+                    philHealthEmployeeShare, pagIbigContribution, withholdingTax, allowance));
+        }
+        return result;
+    }
+
+    /**
+     * Appends a completed employee's result and forces it to disk if the sync policy says so.
+     * Safe to call from several threads.
+     *
+     * @param result The employee's result.
+     * @throws IOException If the record cannot be written.
+     */
+    public void append(PayrollResult result) throws IOException {
+        byte[] number = result.getEmployee().getEmployeeNumber().getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 4 + number.length
+                + 4 + result.getWeeks().size() * (4 + 4 + 8 + 8 + 8)
+                + 4 + result.getPayPeriods().size() * (4 + 8 * 8);
+        ByteBuffer record = ByteBuffer.allocate(4 + payloadLength + 4);
+        record.putInt(payloadLength).putInt(number.length).put(number);
+        record.putInt(result.getWeeks().size());
+        for (PayrollResult.Week week : result.getWeeks()) {
+            record.putInt(week.getLastRecord()).putInt(week.getNumber()).putLong(week.getTotalHundredths())
+                    .putLong(week.getOvertimeHundredths()).putLong(week.getOvertimePay().getCentavos());
+        }
+        record.putInt(result.getPayPeriods().size());
+        for (PayrollResult.PayPeriod payPeriod : result.getPayPeriods()) {
+            Money[] pagIbigContribution = payPeriod.getPagIbigContribution();
+            record.putInt(payPeriod.getLastRecord())
+                    .putLong(payPeriod.getTotalSalary().getCentavos())
+                    .putLong(payPeriod.getSSSContribution().getCentavos())
+                    .putLong(payPeriod.getPhilHealthEmployeeShare().getCentavos())
+                    .putLong(pagIbigContribution[0].getCentavos())
+                    .putLong(pagIbigContribution[1].getCentavos())
+                    .putLong(pagIbigContribution[2].getCentavos())
+                    .putLong(payPeriod.getWithholdingTax().getCentavos())
+                    .putLong(payPeriod.getAllowance().getCentavos());
+        }
+        byte[] payload = new byte[payloadLength];
+        record.get(4, payload);
+        record.putInt(checksum(payload)).flip();
+
+        synchronized (this) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            completed.put(result.getEmployee().getEmployeeNumber(), payload);
+            if (syncPolicy.records() > 0 && ++unsynced >= syncPolicy.records()) {
+                channel.force(false);
+                unsynced = 0;
+            }
+        }
+    }
+
+    /**
+     * Forces any unsynced records to disk and closes the journal. The file is kept, so a later run
+     * over the same inputs restores every employee from it.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (unsynced > 0) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static String readEmployeeNumber(ByteBuffer in) {
+        byte[] number = new byte[in.getInt()];
+        in.get(number);
+        return new String(number, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of payroll journal.");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
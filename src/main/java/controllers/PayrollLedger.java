@@ -0,0 +1,249 @@
+package controllers;
+
+import com.opencsv.exceptions.CsvValidationException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import models.AttendanceLog;
+import models.Employee;
+import models.EmployeeTable;
+import models.PayrollResult;
+import services.EmployeeRepository;
+import services.SSSContributionSchedule;
+import utils.Money;
+
+/**
+ * The PayrollLedger class keeps the payroll of one pair of employee and attendance files between
+ * runs and recomputes only what a change touched. Each employee's result is kept per pay period
+ * together with the inputs the period used: the employee's hourly rate and basic salary, a digest
+ * of the attendance records it covers and the SSS schedule in force at its end.
+ *
+ * {@link #refresh()} brings the ledger up to date with the files. An employee whose attendance,
+ * rates and schedules are all unchanged is reused as a whole; otherwise each period is checked
+ * against its inputs and only the periods whose inputs differ are calculated again. The returned
+ * {@link ChangeReport} lists every payslip whose net salary moved.
+ */
+public class PayrollLedger {
+
+    private final String employeesFile;
+    private final String attendanceFile;
+    // Keyed by employee number in employee order, replaced as a whole by every refresh
+    private Map<String, Entry> entries = Map.of();
+    private List<PayrollResult> results = List.of();
+
+    /**
+     * Constructs an empty ledger for a pair of files. The first {@link #refresh()} calculates everything.
+     *
+     * @param employeesFile  The path to the employee data file (CSV or Excel).
+     * @param attendanceFile The path to the attendance data file (CSV or Excel).
+     */
+    public PayrollLedger(String employeesFile, String attendanceFile) {
+        this.employeesFile = employeesFile;
+        this.attendanceFile = attendanceFile;
+    }
+
+    /**
+     * Brings the payroll up to date with the files, recalculating only the pay periods whose
+     * inputs changed since the last refresh.
+     *
+     * @return The payslips that changed.
+     * @throws IOException            If an I/O error occurs while reading either file.
+     * @throws CsvValidationException If a CSV file is invalid.
+     */
+    public synchronized ChangeReport refresh() throws IOException, CsvValidationException {
+        // The repository itself only reads what changed on disk
+        EmployeeTable employees = EmployeeRepository.forFile(employeesFile)
+                .getEmployeeTableWithAttendance(attendanceFile);
+        PayrollController.DeductionSource deductions = new PayrollController.DeductionSource(employees.getBasicSalaries());
+
+        Map<String, Entry> previous = entries;
+        List<Update> updates = IntStream.range(0, employees.size()).parallel()
+                .mapToObj(row -> update(employees, row, previous, deductions))
+                .toList();
+
+        Map<String, Entry> updated = new LinkedHashMap<>();
+        List<PayrollResult> updatedResults = new ArrayList<>(updates.size());
+        List<Change> changes = new ArrayList<>();
+        int recalculated = 0;
+        for (Update update : updates) {
+            updated.put(update.entry().employee().getEmployeeNumber(), update.entry());
+            updatedResults.add(update.entry().result());
+            changes.addAll(update.changes());
+            recalculated += update.recalculated();
+        }
+        // Employees no longer in the file take their payslips with them, listed after the others
+        for (Map.Entry<String, Entry> removed : previous.entrySet()) {
+            if (!updated.containsKey(removed.getKey())) {
+                Period[] periods = removed.getValue().periods();
+                for (int k = 0; k < periods.length; k++) {
+                    changes.add(new Change(removed.getValue().employee(), k + 1, periods[k].payPeriod().getNetSalary(), null));
+                }
+            }
+        }
+
+        int periodCount = 0;
+        for (Entry entry : updated.values()) {
+            periodCount += entry.periods().length;
+        }
+        entries = updated;
+        results = List.copyOf(updatedResults);
+        return new ChangeReport(recalculated, periodCount - recalculated, List.copyOf(changes));
+    }
+
+    /**
+     * Returns the results of the last refresh, in employee order.
+     *
+     * @return An unmodifiable list of results.
+     */
+    public synchronized List<PayrollResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Brings one employee's entry up to date.
+     */
+    private static Update update(EmployeeTable employees, int row, Map<String, Entry> previousEntries,
+                                 PayrollController.DeductionSource deductions) {
+        Employee employee = employees.getEmployee(row);
+        AttendanceLog attendance = employee.getAttendance();
+        long hourlyRate = employees.getHourlyRate(row).getCentavos();
+        long basicSalary = employees.getBasicSalary(row).getCentavos();
+        Entry previous = previousEntries.get(employee.getEmployeeNumber());
+        boolean sameRates = previous != null && previous.hourlyRate() == hourlyRate && previous.basicSalary() == basicSalary;
+
+        // Nothing this employee's payroll depends on has changed
+        if (sameRates && previous.employee() == employee && previous.attendanceVersion() == employee.getAttendanceVersion()
+                && schedulesUnchanged(previous.periods(), attendance)) {
+            return new Update(previous, 0, List.of());
+        }
+
+        int periodCount = (attendance.size() + PayrollController.PERIOD_RECORDS - 1) / PayrollController.PERIOD_RECORDS;
+        Period[] periods = new Period[periodCount];
+        List<Change> changes = new ArrayList<>();
+        int recalculated = 0;
+        for (int k = 0; k < periodCount; k++) {
+            int first = k * PayrollController.PERIOD_RECORDS;
+            int end = Math.min(first + PayrollController.PERIOD_RECORDS, attendance.size());
+            long digest = digest(attendance, first, end);
+            SSSContributionSchedule schedule = PayrollController.scheduleAt(attendance, end - 1);
+            Period old = previous != null && k < previous.periods().length ? previous.periods()[k] : null;
+
+            if (sameRates && old != null && old.attendanceDigest() == digest && old.schedule() == schedule) {
+                periods[k] = old;
+                continue;
+            }
+
+            PayrollResult scratch = new PayrollResult(employee);
+            PayrollController.calculatePeriod(employees, row, first, deductions, scratch);
+            periods[k] = new Period(digest, schedule, scratch.getWeeks(), scratch.getPayPeriods().get(0));
+            recalculated++;
+
+            Money oldNet = old == null ? null : old.payPeriod().getNetSalary();
+            Money newNet = periods[k].payPeriod().getNetSalary();
+            if (!newNet.equals(oldNet)) {
+                changes.add(new Change(employee, k + 1, oldNet, newNet));
+            }
+        }
+        // Periods that no longer have any attendance
+        for (int k = periodCount; previous != null && k < previous.periods().length; k++) {
+            changes.add(new Change(employee, k + 1, previous.periods()[k].payPeriod().getNetSalary(), null));
+        }
+
+        PayrollResult result = new PayrollResult(employee);
+        for (Period period : periods) {
+            period.weeks().forEach(result::addWeek);
+            result.addPayPeriod(period.payPeriod());
+        }
+        Entry entry = new Entry(employee, employee.getAttendanceVersion(), hourlyRate, basicSalary, periods, result);
+        return new Update(entry, recalculated, changes);
+    }
+
+    // Schedules can be registered after a result was calculated and take over part of its dates
+    private static boolean schedulesUnchanged(Period[] periods, AttendanceLog attendance) {
+        for (Period period : periods) {
+            if (PayrollController.scheduleAt(attendance, period.payPeriod().getLastRecord()) != period.schedule()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Digests the fields of the records in {@code [first, end)} that payroll reads, FNV-1a style.
+     */
+    private static long digest(AttendanceLog attendance, int first, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = first; i < end; i++) {
+            hash = (hash ^ attendance.getEpochDay(i)) * 0x100000001b3L;
+            hash = (hash ^ Math.round(attendance.getWorkedHours(i) * 100)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * One pay period of an employee and the inputs it was calculated from.
+     */
+    private record Period(long attendanceDigest, SSSContributionSchedule schedule,
+                          List<PayrollResult.Week> weeks, PayrollResult.PayPeriod payPeriod) {
+    }
+
+    /**
+     * An employee's pay periods, the master data they used and the assembled result.
+     */
+    private record Entry(Employee employee, long attendanceVersion, long hourlyRate, long basicSalary,
+                         Period[] periods, PayrollResult result) {
+    }
+
+    /**
+     * The outcome of bringing one employee up to date.
+     */
+    private record Update(Entry entry, int recalculated, List<Change> changes) {
+    }
+
+    /**
+     * A payslip whose net salary changed in a refresh.
+     *
+     * @param employee       The employee.
+     * @param period         The pay period number, starting at 1.
+     * @param previousNet    The net salary before the refresh, or {@code null} for a new payslip.
+     * @param currentNet     The net salary after the refresh, or {@code null} for a payslip that no longer exists.
+     */
+    public record Change(Employee employee, int period, Money previousNet, Money currentNet) {
+
+        @Override
+        public String toString() {
+            return String.format("Employee #%s %s, pay period %d: %s -> %s", employee.getEmployeeNumber(),
+                    employee.getFullname(), period, Objects.toString(previousNet, "(none)"),
+                    Objects.toString(currentNet, "(none)"));
+        }
+    }
+
+    /**
+     * What a refresh recalculated and which payslips moved.
+     *
+     * @param recalculatedPeriods The number of pay periods calculated again.
+     * @param reusedPeriods       The number of pay periods kept from the previous refresh.
+     * @param changes             The payslips whose net salary changed, in employee order; those of
+     *                            employees no longer in the file follow, in their previous order.
+     */
+    public record ChangeReport(int recalculatedPeriods, int reusedPeriods, List<Change> changes) {
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder()
+                    .append("Recalculated ").append(recalculatedPeriods).append(" pay periods, reused ")
+                    .append(reusedPeriods).append('.').append(System.lineSeparator());
+            if (changes.isEmpty()) {
+                report.append("No payslips changed.").append(System.lineSeparator());
+            }
+            for (Change change : changes) {
+                report.append(change).append(System.lineSeparator());
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import models.DateRange;
+import services.StatutoryTables;
+import utils.FileHash;
+
+/**
+ * The PayrollOutputCache class keeps rendered payroll output on disk, so a payroll run over inputs
+ * that have not changed copies the stored output instead of reading and calculating everything
+ * again. An entry is keyed by the {@link FileHash} of the employee and attendance files, a
+ * fingerprint of the statutory tables, the pay period, the output format and charset; any change to them
+ * gives a new key, so entries never need to be invalidated.
+ *
+ * Entries are files in one directory. Reading an entry marks it as recently used by touching its
+ * modification time, and after an entry is added the least recently used entries are deleted until
+ * the directory fits the size cap. Because the state is the directory itself, the cache and its
+ * usage order carry over between sessions.
+ *
+ * Payslips are personal data, so the cache is off unless a directory is configured with the
+ * {@code motorph.payroll.cache.dir} system property; the cap is read from
+ * {@code motorph.payroll.cache.maxBytes}, and a cap of 0 also disables the cache. The directory is
+ * created readable by its owner only, and a directory owned by another user is not used.
+ *
+ * The cache never fails a payroll run: an error reading or writing it is logged, and the run
+ * renders its output directly instead.
+ */
+public final class PayrollOutputCache {
+
+    // Logger instance using java.util.logging
+    private static final Logger logger = Logger.getLogger(PayrollOutputCache.class.getName());
+
+    /** The default size cap: 256 MiB. */
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    private static final String ENTRY_SUFFIX = ".out";
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private final Path directory;
+    private final long maxBytes;
+    // Null until the directory has been checked, then whether it can be used
+    private Boolean usable;
+
+    /**
+     * Constructs a cache over a directory, which is created and checked when the cache is first used.
+     *
+     * @param directory The cache directory, or {@code null} for a disabled cache.
+     * @param maxBytes  The most bytes the entries may take together; 0 disables the cache.
+     * @throws IllegalArgumentException If {@code maxBytes} is negative.
+     */
+    public PayrollOutputCache(Path directory, long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative.");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Constructs a cache from the {@code motorph.payroll.cache.dir} and
+     * {@code motorph.payroll.cache.maxBytes} system properties. Without a directory the cache is
+     * disabled; the cap defaults to {@link #DEFAULT_MAX_BYTES}.
+     *
+     * @return The cache.
+     */
+    public static PayrollOutputCache fromSystemProperties() {
+        String directory = System.getProperty("motorph.payroll.cache.dir");
+        if (directory == null || directory.isBlank()) {
+            return new PayrollOutputCache(null, 0);
+        }
+        long maxBytes = Long.getLong("motorph.payroll.cache.maxBytes", DEFAULT_MAX_BYTES);
+        return new PayrollOutputCache(Path.of(directory), Math.max(maxBytes, 0));
+    }
+
+    /**
+     * Returns whether the cache stores anything. The first call creates and checks the directory.
+     *
+     * @return {@code false} if no directory is configured, the size cap is 0 or the directory
+     *         cannot be used safely.
+     */
+    public synchronized boolean isEnabled() {
+        if (directory == null || maxBytes == 0) {
+            return false;
+        }
+        if (usable == null) {
+            usable = prepareDirectory();
+        }
+        return usable;
+    }
+
+    /**
+     * Creates the directory readable by its owner only, or checks an existing one: it must be a
+     * real directory owned by the user running the payroll. Group and other access is removed.
+     */
+    private boolean prepareDirectory() {
+        try {
+            boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+            if (Files.notExists(directory, LinkOption.NOFOLLOW_LINKS)) {
+                if (posix) {
+                    Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+                } else {
+                    Files.createDirectories(directory);
+                }
+            }
+            if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+                logger.log(Level.WARNING, "Payroll output cache disabled: {0} is not a directory.", directory);
+                return false;
+            }
+            UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            if (!Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).equals(user)) {
+                logger.log(Level.WARNING, "Payroll output cache disabled: {0} is owned by another user.", directory);
+                return false;
+            }
+            if (posix) {
+                Files.getFileAttributeView(directory, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                        .setPermissions(OWNER_ONLY);
+            }
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            logger.log(Level.WARNING, "Payroll output cache disabled: " + directory, e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the key of the output for a set of inputs. Both files are hashed in full.
+     *
+     * @param employeesFile  The path to the employee data file.
+     * @param attendanceFile The path to the attendance data file.
+     * @param period         The pay period.
+     * @param format         The output format.
+     * @param charset        The charset the output is encoded in.
+     * @return The key, or {@code null} if the cache is disabled or a file cannot be hashed.
+     */
+    public String keyFor(String employeesFile, String attendanceFile, DateRange period, PayslipRenderer.Format format,
+                         Charset charset) {
+        if (!isEnabled()) {
+            return null;
+        }
+        try {
+            long employeesHash = FileHash.hash(Path.of(employeesFile));
+            long attendanceHash = FileHash.hash(Path.of(attendanceFile));
+            long tables = StatutoryTables.fingerprint();
+            String dates = period.isAll() ? "all" : period.startEpochDay() + "-" + period.endEpochDay();
+            return String.format("%016x-%016x-%016x-%s-%s-%s", employeesHash, attendanceHash, tables, dates,
+                    format.name().toLowerCase(), charset.name().toLowerCase());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Payroll output cache skipped: the input files could not be hashed.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Copies the stored output for a key, if there is one, and marks it as recently used. An entry
+     * that cannot be opened counts as missing.
+     *
+     * @param key The key.
+     * @param out The stream to copy to.
+     * @return {@code true} if the output was found and copied.
+     * @throws IOException If the stream cannot be written, or the entry fails part way through.
+     */
+    public boolean copyTo(String key, OutputStream out) throws IOException {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        InputStream in;
+        try {
+            in = Files.newInputStream(entry);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Payroll output cache entry could not be read: " + key, e);
+            return false;
+        }
+        try (in) {
+            touch(entry);
+            in.transferTo(out);
+        }
+        logger.log(Level.INFO, "Reusing payroll output for unchanged inputs: {0}", key);
+        return true;
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Could not mark payroll output as used: {0}", entry.getFileName());
+        }
+    }
+
+    /**
+     * Starts recording output for a key: the returned stream writes everything to {@code out} and
+     * to a pending file in the cache, which {@link Recording#commit()} stores under the key.
+     *
+     * @param key The key.
+     * @param out The stream the output goes to.
+     * @return The recording stream, or {@code null} if no pending file could be created.
+     */
+    public Recording record(String key, OutputStream out) {
+        try {
+            Path pending = Files.createTempFile(directory, "pending-", ".tmp");
+            try {
+                return new Recording(key, out, pending, Files.newOutputStream(pending));
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(pending);
+                throw e;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Payroll output cache skipped: no pending file could be created.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores rendered output under a key, then evicts the least recently used entries until the
+     * cache fits its cap. Output larger than the whole cap is not kept.
+     */
+    private synchronized void store(String key, Path pending) throws IOException {
+        if (Files.size(pending) > maxBytes) {
+            Files.deleteIfExists(pending);
+            return;
+        }
+        Files.move(pending, directory.resolve(key + ENTRY_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+    /**
+     * Deletes the least recently used entries until the entries fit the cap.
+     */
+    private void evict() throws IOException {
+        record Entry(Path path, long size, FileTime lastUsed) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                total += attributes.size();
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (int i = 0; i < entries.size() && total > maxBytes; i++) {
+            Entry entry = entries.get(i);
+            Files.deleteIfExists(entry.path());
+            total -= entry.size();
+            logger.log(Level.FINE, "Evicted payroll output: {0}", entry.path().getFileName());
+        }
+    }
+
+    /**
+     * A stream that writes output to its destination and, as it goes, to a pending cache file, so
+     * output rendered on a cache miss is stored without being written twice. The destination is
+     * always written first; if the pending file fails, the recording is dropped and the output
+     * still reaches the destination. Closing the stream without {@link #commit()} discards the
+     * recording; the destination is never closed.
+     */
+    public final class Recording extends OutputStream {
+
+        private final String key;
+        private final OutputStream out;
+        private final Path pending;
+        private OutputStream pendingOut; // Null once the recording is dropped or finished
+
+        private Recording(String key, OutputStream out, Path pending, OutputStream pendingOut) {
+            this.key = key;
+            this.out = out;
+            this.pending = pending;
+            this.pendingOut = pendingOut;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (pendingOut != null) {
+                try {
+                    pendingOut.write(b);
+                } catch (IOException e) {
+                    drop(e);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (pendingOut != null) {
+                try {
+                    pendingOut.write(b, off, len);
+                } catch (IOException e) {
+                    drop(e);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * Stores the recorded output under its key. Errors are logged, not thrown.
+         */
+        public void commit() {
+            if (pendingOut == null) {
+                return;
+            }
+            try {
+                OutputStream finished = pendingOut;
+                pendingOut = null;
+                finished.close();
+                store(key, pending);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Payroll output could not be stored in the cache: " + key, e);
+            } finally {
+                deletePending();
+            }
+        }
+
+        /**
+         * Discards the recording unless it was committed. The destination stays open.
+         */
+        @Override
+        public void close() {
+            if (pendingOut != null) {
+                try {
+                    pendingOut.close();
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Could not close pending payroll output: {0}", pending.getFileName());
+                }
+                pendingOut = null;
+            }
+            deletePending();
+        }
+
+        private void drop(IOException cause) {
+            logger.log(Level.WARNING, "Payroll output cache skipped: the pending file could not be written.", cause);
+            close();
+        }
+
+        private void deletePending() {
+            try {
+                Files.deleteIfExists(pending);
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Could not delete pending payroll output: {0}", pending.getFileName());
+            }
+        }
+    }
+}
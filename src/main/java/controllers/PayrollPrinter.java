@@ -1,9 +1,40 @@
 package controllers;
 
+import java.io.IOException;
 import models.Employee;
+import models.PayrollResult;
+import utils.Money;
 
 public class PayrollPrinter {
 
+    /**
+     * Displays an employee's payroll: each attendance record, every week's overtime after its last
+     * record and a receipt after the last record of each pay period.
+     *
+     * @param result The employee's payroll result.
+     */
+    public void displayPayroll(PayrollResult result) {
+        try (PayslipRenderer renderer = new PayslipRenderer(PayslipRenderer.Format.TEXT, System.out)) {
+            renderer.render(result);
+        } catch (IOException e) {
+            System.err.println("Error displaying payroll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Displays a payroll receipt for one pay period.
+     *
+     * @param employee  The employee.
+     * @param payPeriod The pay period.
+     */
+    public void displayReceipt(Employee employee, PayrollResult.PayPeriod payPeriod) {
+        try (PayslipRenderer renderer = new PayslipRenderer(PayslipRenderer.Format.TEXT, System.out)) {
+            renderer.renderReceipt(employee, payPeriod);
+        } catch (IOException e) {
+            System.err.println("Error displaying receipt: " + e.getMessage());
+        }
+    }
+
     /**
      * Displays a payroll receipt for an employee.
      *
@@ -15,25 +46,9 @@ public class PayrollPrinter {
      * @param withHoldingTax             The withholding tax.
      * @param allowance                  The allowance.
      */
-    public void displayReceipt(Employee employee, double totalSalary, double sssContribution,
-                               double philHealthEmployeeShare, double[] pagIbigContribution, double withHoldingTax, double allowance) {
-        System.out.println("=========================================");
-        System.out.println("               PAYROLL RECEIPT           ");
-        System.out.println("=========================================");
-        System.out.printf("Employee: %s%n", employee.getFullname());
-        System.out.printf("Employee Number: %s%n", employee.getEmployeeNumber());
-        System.out.println("-----------------------------------------");
-        System.out.printf("Total Salary: %.2f%n", totalSalary);
-        System.out.println("-----------------------------------------");
-        System.out.printf("SSS Contribution: %.2f%n", sssContribution);
-        System.out.printf("PhilHealth Employee Share: %.2f%n", philHealthEmployeeShare);
-        System.out.printf("Pag-IBIG Employee Contribution: %.2f%n", pagIbigContribution[0]);
-        System.out.printf("Pag-IBIG Employer Contribution: %.2f%n", pagIbigContribution[1]);
-        System.out.printf("Total Pag-IBIG Contribution: %.2f%n", pagIbigContribution[2]);
-        System.out.printf("Withholding Tax : %.2f%n", withHoldingTax);
-        System.out.printf("Allowance : %.2f%n", allowance);
-        System.out.println("-----------------------------------------");
-        System.out.printf("Net Salary: %.2f%n", (totalSalary - sssContribution - philHealthEmployeeShare - pagIbigContribution[0] - withHoldingTax) + allowance);
-        System.out.println("=========================================");
+    public void displayReceipt(Employee employee, Money totalSalary, Money sssContribution,
+                               Money philHealthEmployeeShare, Money[] pagIbigContribution, Money withHoldingTax, Money allowance) {
+        displayReceipt(employee, new PayrollResult.PayPeriod(-1, totalSalary, sssContribution, philHealthEmployeeShare,
+                pagIbigContribution, withHoldingTax, allowance));
     }
-}
\ No newline at end of file
+}
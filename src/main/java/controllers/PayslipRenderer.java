@@ -0,0 +1,422 @@
+package controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import models.AttendanceLog;
+import models.Employee;
+import models.PayrollResult;
+import utils.Money;
+
+/**
+ * The PayslipRenderer class writes payroll results as text, CSV or JSON. Payslips are formatted
+ * into a reusable character buffer, encoded into a reusable byte buffer and written in large
+ * blocks, instead of one console call per line.
+ *
+ * <ul>
+ *   <li>{@link Format#TEXT} is the console layout: every attendance record, the weekly overtime and
+ *       a receipt per pay period.</li>
+ *   <li>{@link Format#CSV} writes a header and one row per pay period.</li>
+ *   <li>{@link Format#JSON} writes an array with one object per pay period.</li>
+ * </ul>
+ *
+ * Output is only guaranteed to be written after {@link #flush()} or {@link #close()}. A renderer
+ * created for a file owns and closes it; a renderer created for a stream only flushes it.
+ *
+ * Files are written in UTF-8. A renderer for a {@link PrintStream} such as {@code System.out}
+ * encodes in that stream's charset, so the peso sign is not garbled on a console that is not
+ * UTF-8; characters the charset cannot represent are replaced.
+ */
+public class PayslipRenderer implements AutoCloseable {
+
+    /**
+     * The output formats.
+     */
+    public enum Format {
+        /** The console receipt layout. */
+        TEXT,
+        /** One comma-separated row per pay period. */
+        CSV,
+        /** An array of JSON objects, one per pay period. */
+        JSON
+    }
+
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String RULE = "=========================================";
+    private static final String THIN_RULE = "-----------------------------------------";
+    private static final int BATCH_CHARS = 64 * 1024;
+
+    private static final String CSV_HEADER = "Employee Number,Employee Name,Period End,Total Salary,SSS Contribution,"
+            + "PhilHealth Employee Share,Pag-IBIG Employee Contribution,Pag-IBIG Employer Contribution,"
+            + "Total Pag-IBIG Contribution,Withholding Tax,Allowance,Net Salary";
+
+    private final Format format;
+    private final WritableByteChannel channel;
+    private final OutputStream stream; // Null when the renderer owns the channel
+    private final StringBuilder text = new StringBuilder(BATCH_CHARS + 4096);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BATCH_CHARS * 2);
+    private final CharsetEncoder encoder;
+    private int payslipCount;
+    private boolean closed;
+
+    /**
+     * Constructs a renderer that writes to a file, replacing its contents.
+     *
+     * @param format The output format.
+     * @param file   The file to write.
+     * @throws IOException If the file cannot be opened.
+     */
+    public PayslipRenderer(Format format, Path file) throws IOException {
+        this(format, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), null, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Constructs a renderer that writes to a stream, such as {@code System.out}. A
+     * {@link PrintStream} is written in its own charset and any other stream in UTF-8. The stream
+     * is not closed by {@link #close()}.
+     *
+     * @param format The output format.
+     * @param out    The stream to write.
+     */
+    public PayslipRenderer(Format format, OutputStream out) {
+        this(format, out, charsetOf(out));
+    }
+
+    /**
+     * Constructs a renderer that writes to a stream in the given charset. The stream is not closed
+     * by {@link #close()}.
+     *
+     * @param format  The output format.
+     * @param out     The stream to write.
+     * @param charset The charset to encode the output in.
+     */
+    public PayslipRenderer(Format format, OutputStream out, Charset charset) {
+        this(format, Channels.newChannel(out), out, charset);
+    }
+
+    private PayslipRenderer(Format format, WritableByteChannel channel, OutputStream stream, Charset charset) {
+        this.format = format;
+        this.channel = channel;
+        this.stream = stream;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        if (format == Format.CSV) {
+            text.append(CSV_HEADER).append(NEWLINE);
+        } else if (format == Format.JSON) {
+            text.append('[');
+        }
+    }
+
+    /**
+     * Returns the number of payslips rendered so far.
+     *
+     * @return The payslip count.
+     */
+    public int getPayslipCount() {
+        return payslipCount;
+    }
+
+    /**
+     * Renders an employee's payroll result.
+     *
+     * @param result The result.
+     * @throws IOException If a full buffer cannot be written.
+     */
+    public void render(PayrollResult result) throws IOException {
+        switch (format) {
+            case TEXT -> appendText(result);
+            case CSV -> {
+                for (PayrollResult.PayPeriod payPeriod : result.getPayPeriods()) {
+                    appendCsv(result.getEmployee(), periodEnd(result, payPeriod), payPeriod);
+                }
+            }
+            case JSON -> {
+                for (PayrollResult.PayPeriod payPeriod : result.getPayPeriods()) {
+                    appendJson(result.getEmployee(), periodEnd(result, payPeriod), payPeriod);
+                }
+            }
+        }
+        if (text.length() >= BATCH_CHARS) {
+            writeBuffered();
+        }
+    }
+
+    /**
+     * Renders a single receipt. Text output shows the receipt without the attendance records;
+     * CSV and JSON output have no period end date.
+     *
+     * @param employee  The employee.
+     * @param payPeriod The pay period.
+     * @throws IOException If a full buffer cannot be written.
+     */
+    public void renderReceipt(Employee employee, PayrollResult.PayPeriod payPeriod) throws IOException {
+        switch (format) {
+            case TEXT -> appendReceipt(employee, payPeriod);
+            case CSV -> appendCsv(employee, null, payPeriod);
+            case JSON -> appendJson(employee, null, payPeriod);
+        }
+        if (text.length() >= BATCH_CHARS) {
+            writeBuffered();
+        }
+    }
+
+    /**
+     * Writes everything rendered so far.
+     *
+     * @throws IOException If the output cannot be written.
+     */
+    public void flush() throws IOException {
+        writeBuffered();
+        if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    /**
+     * Completes the output, writes it and closes the file if the renderer opened it.
+     *
+     * @throws IOException If the output cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (format == Format.JSON) {
+            text.append(payslipCount > 0 ? NEWLINE : "").append(']').append(NEWLINE);
+        }
+        try {
+            flush();
+        } finally {
+            if (stream == null) {
+                channel.close();
+            }
+        }
+    }
+
+    private static LocalDate periodEnd(PayrollResult result, PayrollResult.PayPeriod payPeriod) {
+        return LocalDate.ofEpochDay(result.getEmployee().getAttendance().getEpochDay(payPeriod.getLastRecord()));
+    }
+
+    private void appendText(PayrollResult result) {
+        Employee employee = result.getEmployee();
+        AttendanceLog attendance = employee.getAttendance();
+        List<PayrollResult.Week> weeks = result.getWeeks();
+        List<PayrollResult.PayPeriod> payPeriods = result.getPayPeriods();
+        int nextWeek = 0;
+        int nextPayPeriod = 0;
+
+        text.append(employee).append(NEWLINE);
+        text.append("Records:").append(NEWLINE);
+        for (int i = 0; i < attendance.size(); i++) {
+            text.append("Worked Hours for ").append(attendance.formatDate(i)).append(": ")
+                    .append(attendance.getWorkedHours(i)).append(", Is Late: ").append(attendance.isLate(i)).append(NEWLINE);
+
+            // Weeks and receipts follow the last record they cover
+            while (nextWeek < weeks.size() && weeks.get(nextWeek).getLastRecord() == i) {
+                PayrollResult.Week week = weeks.get(nextWeek++);
+                text.append("Week ").append(week.getNumber()).append(": Total Hours = ");
+                appendHundredths(week.getTotalHundredths());
+                text.append(", Overtime Hours = ");
+                appendHundredths(week.getOvertimeHundredths());
+                text.append(", Overtime Pay = ").append(week.getOvertimePay()).append(NEWLINE);
+            }
+            while (nextPayPeriod < payPeriods.size() && payPeriods.get(nextPayPeriod).getLastRecord() == i) {
+                appendReceipt(employee, payPeriods.get(nextPayPeriod++));
+            }
+        }
+        text.append("-----------------------------").append(NEWLINE);
+    }
+
+    private void appendReceipt(Employee employee, PayrollResult.PayPeriod payPeriod) {
+        Money[] pagIbigContribution = payPeriod.getPagIbigContribution();
+        text.append(RULE).append(NEWLINE);
+        text.append("               PAYROLL RECEIPT           ").append(NEWLINE);
+        text.append(RULE).append(NEWLINE);
+        text.append("Employee: ").append(employee.getFullname()).append(NEWLINE);
+        text.append("Employee Number: ").append(employee.getEmployeeNumber()).append(NEWLINE);
+        text.append(THIN_RULE).append(NEWLINE);
+        text.append("Total Salary: ").append(payPeriod.getTotalSalary()).append(NEWLINE);
+        text.append(THIN_RULE).append(NEWLINE);
+        text.append("SSS Contribution: ").append(payPeriod.getSSSContribution()).append(NEWLINE);
+        text.append("PhilHealth Employee Share: ").append(payPeriod.getPhilHealthEmployeeShare()).append(NEWLINE);
+        text.append("Pag-IBIG Employee Contribution: ").append(pagIbigContribution[0]).append(NEWLINE);
+        text.append("Pag-IBIG Employer Contribution: ").append(pagIbigContribution[1]).append(NEWLINE);
+        text.append("Total Pag-IBIG Contribution: ").append(pagIbigContribution[2]).append(NEWLINE);
+        text.append("Withholding Tax : ").append(payPeriod.getWithholdingTax()).append(NEWLINE);
+        text.append("Allowance : ").append(payPeriod.getAllowance()).append(NEWLINE);
+        text.append(THIN_RULE).append(NEWLINE);
+        text.append("Net Salary: ").append(payPeriod.getNetSalary()).append(NEWLINE);
+        text.append(RULE).append(NEWLINE);
+        payslipCount++;
+    }
+
+    private void appendCsv(Employee employee, LocalDate periodEnd, PayrollResult.PayPeriod payPeriod) {
+        Money[] pagIbigContribution = payPeriod.getPagIbigContribution();
+        appendCsvField(employee.getEmployeeNumber());
+        text.append(',');
+        appendCsvField(employee.getFullname());
+        text.append(',');
+        if (periodEnd != null) {
+            text.append(periodEnd);
+        }
+        text.append(',').append(payPeriod.getTotalSalary())
+                .append(',').append(payPeriod.getSSSContribution())
+                .append(',').append(payPeriod.getPhilHealthEmployeeShare())
+                .append(',').append(pagIbigContribution[0])
+                .append(',').append(pagIbigContribution[1])
+                .append(',').append(pagIbigContribution[2])
+                .append(',').append(payPeriod.getWithholdingTax())
+                .append(',').append(payPeriod.getAllowance())
+                .append(',').append(payPeriod.getNetSalary())
+                .append(NEWLINE);
+        payslipCount++;
+    }
+
+    private void appendJson(Employee employee, LocalDate periodEnd, PayrollResult.PayPeriod payPeriod) {
+        Money[] pagIbigContribution = payPeriod.getPagIbigContribution();
+        text.append(payslipCount > 0 ? "," : "").append(NEWLINE);
+        text.append("{\"employeeNumber\":");
+        appendJsonString(employee.getEmployeeNumber());
+        text.append(",\"employeeName\":");
+        appendJsonString(employee.getFullname());
+        text.append(",\"periodEnd\":");
+        if (periodEnd != null) {
+            text.append('"').append(periodEnd).append('"');
+        } else {
+            text.append("null");
+        }
+        // Amounts are exact decimals, so they are written as JSON numbers
+        text.append(",\"totalSalary\":").append(payPeriod.getTotalSalary())
+                .append(",\"sssContribution\":").append(payPeriod.getSSSContribution())
+                .append(",\"philHealthEmployeeShare\":").append(payPeriod.getPhilHealthEmployeeShare())
+                .append(",\"pagIbigEmployeeContribution\":").append(pagIbigContribution[0])
+                .append(",\"pagIbigEmployerContribution\":").append(pagIbigContribution[1])
+                .append(",\"pagIbigTotalContribution\":").append(pagIbigContribution[2])
+                .append(",\"withholdingTax\":").append(payPeriod.getWithholdingTax())
+                .append(",\"allowance\":").append(payPeriod.getAllowance())
+                .append(",\"netSalary\":").append(payPeriod.getNetSalary())
+                .append('}');
+        payslipCount++;
+    }
+
+    /**
+     * Appends an amount of hundredths with two decimals, like {@code %.2f}. Worked hours can be
+     * negative, for a day shorter than the lunch break.
+     */
+    private void appendHundredths(long hundredths) {
+        if (hundredths < 0) {
+            text.append('-');
+        }
+        long magnitude = Math.abs(hundredths);
+        long fraction = magnitude % 100;
+        text.append(magnitude / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+
+    private void appendCsvField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            text.append(value);
+            return;
+        }
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                text.append('"');
+            }
+            text.append(c);
+        }
+        text.append('"');
+    }
+
+    private void appendJsonString(String value) {
+        if (value == null) {
+            text.append("null");
+            return;
+        }
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> text.append("\\\"");
+                case '\\' -> text.append("\\\\");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                case '\t' -> text.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        text.append(c);
+                    }
+                }
+            }
+        }
+        text.append('"');
+    }
+
+    /**
+     * Returns the charset a stream is written in: its own for a {@link PrintStream}, otherwise UTF-8.
+     *
+     * @param out The stream.
+     * @return The charset.
+     */
+    static Charset charsetOf(OutputStream out) {
+        return out instanceof PrintStream printStream ? printStream.charset() : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Encodes the character buffer into the byte buffer and writes it, a block at a time.
+     */
+    private void writeBuffered() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow() || !chars.hasRemaining()) {
+                if (!chars.hasRemaining()) {
+                    encoder.flush(bytes);
+                }
+                bytes.flip();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                bytes.clear();
+            }
+        } while (chars.hasRemaining() || result.isOverflow());
+        text.setLength(0);
+    }
+}
@@ -0,0 +1,166 @@
+package models;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+
+/**
+ * The AttendanceIndex class answers hour totals for any date range of one employee's attendance
+ * without walking the records. The records are sorted by date once, and running totals of worked
+ * hours, late days and overtime minutes are kept after every record. The totals of a range are
+ * then the difference between the running totals at its two ends, which are found by binary search.
+ *
+ * An index is a snapshot of the log it was built from; {@link Employee} builds a new one after
+ * its attendance changes.
+ */
+public final class AttendanceIndex {
+
+    // Worked minutes beyond this in a day count as overtime
+    private static final int REGULAR_DAY_MINUTES = 8 * 60;
+
+    private final int[] epochDays;
+    // Running totals: entry i covers the first i records in date order
+    private final long[] workedHundredths;
+    private final int[] lateDays;
+    private final long[] overtimeMinutes;
+
+    private AttendanceIndex(int[] epochDays, long[] workedHundredths, int[] lateDays, long[] overtimeMinutes) {
+        this.epochDays = epochDays;
+        this.workedHundredths = workedHundredths;
+        this.lateDays = lateDays;
+        this.overtimeMinutes = overtimeMinutes;
+    }
+
+    /**
+     * Builds the index of an attendance log. Records with the same date keep their log order.
+     *
+     * @param log The attendance log.
+     * @return The index.
+     */
+    public static AttendanceIndex of(AttendanceLog log) {
+        int size = log.size();
+        // Sort by date, then by position in the log, in one pass over packed keys
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) log.getEpochDay(i) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] epochDays = new int[size];
+        long[] workedHundredths = new long[size + 1];
+        int[] lateDays = new int[size + 1];
+        long[] overtimeMinutes = new long[size + 1];
+        for (int k = 0; k < size; k++) {
+            int record = (int) order[k];
+            double hours = log.getWorkedHours(record);
+            epochDays[k] = log.getEpochDay(record);
+            workedHundredths[k + 1] = workedHundredths[k] + Math.round(hours * 100);
+            lateDays[k + 1] = lateDays[k] + (log.isLate(record) ? 1 : 0);
+            overtimeMinutes[k + 1] = overtimeMinutes[k] + Math.max(Math.round(hours * 60) - REGULAR_DAY_MINUTES, 0);
+        }
+        return new AttendanceIndex(epochDays, workedHundredths, lateDays, overtimeMinutes);
+    }
+
+    /**
+     * Returns the number of records indexed.
+     *
+     * @return The record count.
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * Returns the totals of the records dated from {@code start} to {@code end}, both inclusive.
+     *
+     * @param start The first date of the range.
+     * @param end   The last date of the range.
+     * @return The totals; zero if no record falls in the range.
+     */
+    public Totals totals(LocalDate start, LocalDate end) {
+        return totals(Math.toIntExact(start.toEpochDay()), Math.toIntExact(end.toEpochDay()));
+    }
+
+    /**
+     * Returns the totals of the records dated from {@code startEpochDay} to {@code endEpochDay},
+     * both inclusive.
+     *
+     * @param startEpochDay The first date of the range as days since 1970-01-01.
+     * @param endEpochDay   The last date of the range as days since 1970-01-01.
+     * @return The totals; zero if no record falls in the range.
+     */
+    public Totals totals(int startEpochDay, int endEpochDay) {
+        if (endEpochDay < startEpochDay) {
+            return Totals.NONE;
+        }
+        int from = firstOnOrAfter(startEpochDay);
+        int to = endEpochDay == Integer.MAX_VALUE ? epochDays.length : firstOnOrAfter(endEpochDay + 1);
+        return new Totals(to - from, workedHundredths[to] - workedHundredths[from],
+                lateDays[to] - lateDays[from], overtimeMinutes[to] - overtimeMinutes[from]);
+    }
+
+    /**
+     * Returns the totals of the semi-monthly period containing a date: the 1st to the 15th, or the
+     * 16th to the end of the month.
+     *
+     * @param date Any date in the period.
+     * @return The totals.
+     */
+    public Totals semiMonthlyTotals(LocalDate date) {
+        return date.getDayOfMonth() <= 15
+                ? totals(date.withDayOfMonth(1), date.withDayOfMonth(15))
+                : totals(date.withDayOfMonth(16), date.with(TemporalAdjusters.lastDayOfMonth()));
+    }
+
+    /**
+     * Returns the totals of the ISO week, Monday to Sunday, containing a date.
+     *
+     * @param date Any date in the week.
+     * @return The totals.
+     */
+    public Totals isoWeekTotals(LocalDate date) {
+        LocalDate monday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return totals(monday, monday.plusDays(6));
+    }
+
+    /**
+     * Returns the totals of a calendar month.
+     *
+     * @param month The month.
+     * @return The totals.
+     */
+    public Totals monthTotals(YearMonth month) {
+        return totals(month.atDay(1), month.atEndOfMonth());
+    }
+
+    // Index of the first record dated on or after the given day, or size() if there is none
+    private int firstOnOrAfter(int epochDay) {
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The attendance totals of a date range.
+     *
+     * @param days             The number of attendance records in the range.
+     * @param workedHundredths The hours worked, in hundredths of an hour.
+     * @param lateDays         The number of records on which the employee was late.
+     * @param overtimeMinutes  The minutes worked beyond 8 hours a day, summed over the records.
+     */
+    public record Totals(int days, long workedHundredths, int lateDays, long overtimeMinutes) {
+
+        /** The totals of an empty range. */
+        public static final Totals NONE = new Totals(0, 0, 0, 0);
+    }
+}
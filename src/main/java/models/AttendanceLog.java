@@ -0,0 +1,262 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The AttendanceLog class stores an employee's attendance as primitive columns: the date as an
+ * epoch day, log-in and log-out as minutes after midnight, the worked hours and a late flag.
+ * Payroll code reads the columns directly; the familiar "Date: ..., LogIn: ..." strings are only
+ * rendered when a record is displayed.
+ *
+ * Two backing stores are available: {@link HeapAttendanceLog} keeps the columns in Java arrays and
+ * {@link OffHeapAttendanceLog} keeps fixed-width records in native memory. The store used for new
+ * logs is chosen with {@link #setStorage(Storage)} or the {@code motorph.attendance.storage} system
+ * property ({@code heap} or {@code offheap}).
+ */
+public abstract class AttendanceLog {
+
+    /**
+     * Where attendance records are kept.
+     */
+    public enum Storage {
+        /** Primitive arrays on the Java heap. */
+        HEAP,
+        /** Fixed-width records in an off-heap memory segment. */
+        OFF_HEAP
+    }
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Flag bits kept per record
+    protected static final byte LATE = 1;
+    protected static final byte LATE_RECORDED = 2;
+
+    private static volatile Storage storage =
+            "offheap".equalsIgnoreCase(System.getProperty("motorph.attendance.storage")) ? Storage.OFF_HEAP : Storage.HEAP;
+
+    /**
+     * Selects the backing store used by {@link #create()} from now on. Existing logs are not moved.
+     *
+     * @param newStorage The storage to use for new logs.
+     */
+    public static void setStorage(Storage newStorage) {
+        storage = newStorage;
+    }
+
+    /**
+     * Returns the backing store used for new logs.
+     *
+     * @return The current storage.
+     */
+    public static Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Creates an empty attendance log backed by the currently selected storage.
+     *
+     * @return A new attendance log.
+     */
+    public static AttendanceLog create() {
+        return storage == Storage.OFF_HEAP ? new OffHeapAttendanceLog() : new HeapAttendanceLog();
+    }
+
+    /**
+     * Creates an empty attendance log for an attendance load. With off-heap storage the log
+     * allocates from the load's memory; heap logs do not use it.
+     *
+     * @param memory The memory of the load, or {@code null} to use an automatic arena.
+     * @return A new attendance log.
+     */
+    public static AttendanceLog create(AttendanceMemory memory) {
+        if (storage != Storage.OFF_HEAP) {
+            return new HeapAttendanceLog();
+        }
+        return memory == null ? new OffHeapAttendanceLog() : new OffHeapAttendanceLog(memory);
+    }
+
+    /**
+     * Appends a record including whether the employee was late.
+     *
+     * @param epochDay     The date as days since 1970-01-01.
+     * @param logInMinute  The log-in time as minutes after midnight.
+     * @param logOutMinute The log-out time as minutes after midnight.
+     * @param hours        The number of hours worked.
+     * @param isLate       Whether the employee was late.
+     */
+    public void add(int epochDay, int logInMinute, int logOutMinute, double hours, boolean isLate) {
+        append(epochDay, logInMinute, logOutMinute, roundHours(hours), (byte) (LATE_RECORDED | (isLate ? LATE : 0)));
+    }
+
+    /**
+     * Appends a record for which lateness was not recorded.
+     *
+     * @param epochDay     The date as days since 1970-01-01.
+     * @param logInMinute  The log-in time as minutes after midnight.
+     * @param logOutMinute The log-out time as minutes after midnight.
+     * @param hours        The number of hours worked.
+     */
+    public void add(int epochDay, int logInMinute, int logOutMinute, double hours) {
+        append(epochDay, logInMinute, logOutMinute, roundHours(hours), (byte) 0);
+    }
+
+    /**
+     * Stores one record. Hours have already been rounded to the hundredth.
+     */
+    protected abstract void append(int epochDay, int logInMinute, int logOutMinute, double hours, byte flag);
+
+    /**
+     * Returns the flag bits of a record.
+     */
+    protected abstract byte getFlags(int index);
+
+    /**
+     * Removes all records.
+     */
+    public abstract void clear();
+
+    /**
+     * Returns the number of records.
+     *
+     * @return The record count.
+     */
+    public abstract int size();
+
+    /**
+     * Returns the date of a record.
+     *
+     * @param index The record index.
+     * @return The date as days since 1970-01-01.
+     */
+    public abstract int getEpochDay(int index);
+
+    /**
+     * Returns the log-in time of a record.
+     *
+     * @param index The record index.
+     * @return The log-in time as minutes after midnight.
+     */
+    public abstract int getLogInMinute(int index);
+
+    /**
+     * Returns the log-out time of a record.
+     *
+     * @param index The record index.
+     * @return The log-out time as minutes after midnight.
+     */
+    public abstract int getLogOutMinute(int index);
+
+    /**
+     * Returns the worked hours of a record, to the hundredth.
+     *
+     * @param index The record index.
+     * @return The worked hours.
+     */
+    public abstract double getWorkedHours(int index);
+
+    /**
+     * Returns whether the employee was late on a record's date.
+     *
+     * @param index The record index.
+     * @return {@code true} if the employee was late; {@code false} if not or if it was not recorded.
+     */
+    public boolean isLate(int index) {
+        return (getFlags(index) & LATE) != 0;
+    }
+
+    /**
+     * Returns the date of a record formatted as MM/dd/yyyy.
+     *
+     * @param index The record index.
+     * @return The formatted date.
+     */
+    public String formatDate(int index) {
+        return LocalDate.ofEpochDay(getEpochDay(index)).format(DATE_FORMAT);
+    }
+
+    /**
+     * Renders a record in the same text form the employee's attendance list has always used.
+     *
+     * @param index The record index.
+     * @return The rendered record.
+     */
+    public String render(int index) {
+        String logIn = formatMinuteOfDay(getLogInMinute(index));
+        String logOut = formatMinuteOfDay(getLogOutMinute(index));
+        if ((getFlags(index) & LATE_RECORDED) == 0) {
+            return String.format("Date: %s, Log In: %s, Log Out: %s, Worked Hours: %.2f",
+                    formatDate(index), logIn, logOut, getWorkedHours(index));
+        }
+        return String.format("Date: %s, LogIn: %s, LogOut: %s, Worked Hours: %.2f, Is Late: %b",
+                formatDate(index), logIn, logOut, getWorkedHours(index), isLate(index));
+    }
+
+    /**
+     * Returns a read-only list view that renders each record on access.
+     *
+     * @return The records as strings.
+     */
+    public List<String> asStrings() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= AttendanceLog.this.size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + AttendanceLog.this.size());
+                }
+                return render(index);
+            }
+
+            @Override
+            public int size() {
+                return AttendanceLog.this.size();
+            }
+        };
+    }
+
+    /**
+     * Parses an H:mm or HH:mm clock time into minutes after midnight.
+     *
+     * @param time The time text.
+     * @return The minute of the day.
+     * @throws IllegalArgumentException If the text is not a valid time.
+     */
+    public static int parseMinuteOfDay(String time) {
+        int colon = time.indexOf(':');
+        if (colon < 1 || colon > 2 || time.length() != colon + 3) {
+            throw new IllegalArgumentException("Text '" + time + "' could not be parsed as a time");
+        }
+        try {
+            int hours = Integer.parseInt(time, 0, colon, 10);
+            int minutes = Integer.parseInt(time, colon + 1, time.length(), 10);
+            if (hours > 23 || minutes > 59 || hours < 0 || minutes < 0) {
+                throw new IllegalArgumentException("Text '" + time + "' is not a valid time");
+            }
+            return hours * 60 + minutes;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Text '" + time + "' could not be parsed as a time", e);
+        }
+    }
+
+    /**
+     * Parses an MM/dd/yyyy date into days since 1970-01-01.
+     *
+     * @param date The date text.
+     * @return The epoch day.
+     * @throws java.time.format.DateTimeParseException If the text is not a valid date.
+     */
+    public static int parseEpochDay(String date) {
+        return (int) LocalDate.parse(date, DATE_FORMAT).toEpochDay();
+    }
+
+    // Hours are kept to the hundredth, the precision of the rendered record
+    private static double roundHours(double hours) {
+        return Math.round(hours * 100.0) / 100.0;
+    }
+
+    private static String formatMinuteOfDay(int minuteOfDay) {
+        return String.format("%d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
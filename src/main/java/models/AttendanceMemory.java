@@ -0,0 +1,57 @@
+package models;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * The AttendanceMemory class is the native memory behind the {@link OffHeapAttendanceLog}s of one
+ * attendance load. Every log created for the load takes its segments from a single shared arena,
+ * carved out of 4 MiB slabs by a bump allocator, so a load of many small logs makes a handful of
+ * native allocations instead of one per log and per growth.
+ *
+ * Memory is never handed back piecemeal: a segment a log has outgrown stays in its slab until the
+ * whole load is released with {@link #close()}, which frees everything at once. Logs allocated from
+ * a closed memory must no longer be read.
+ */
+public final class AttendanceMemory implements AutoCloseable {
+
+    // Size of each slab carved into log segments
+    private static final long SLAB_SIZE = 4L << 20;
+
+    // Alignment of each slab, enough for any attendance record layout
+    private static final long SLAB_ALIGNMENT = 16;
+
+    private final Arena arena = Arena.ofShared();
+    private MemorySegment slab;
+    private long used;
+
+    /**
+     * Allocates a segment. Segments larger than a quarter of a slab get an allocation of their own.
+     *
+     * @param byteSize      The size of the segment in bytes.
+     * @param byteAlignment The alignment of the segment; a power of two.
+     * @return The segment, valid until this memory is closed.
+     * @throws IllegalStateException If this memory has been closed.
+     */
+    public synchronized MemorySegment allocate(long byteSize, long byteAlignment) {
+        if (byteSize > SLAB_SIZE / 4 || byteAlignment > SLAB_ALIGNMENT) {
+            return arena.allocate(byteSize, byteAlignment);
+        }
+        long offset = (used + byteAlignment - 1) & -byteAlignment;
+        if (slab == null || offset + byteSize > SLAB_SIZE) {
+            slab = arena.allocate(SLAB_SIZE, SLAB_ALIGNMENT);
+            offset = 0;
+        }
+        used = offset + byteSize;
+        return slab.asSlice(offset, byteSize);
+    }
+
+    /**
+     * Releases all memory allocated for the load.
+     */
+    @Override
+    public synchronized void close() {
+        slab = null;
+        arena.close();
+    }
+}
@@ -0,0 +1,59 @@
+package models;
+
+import java.time.LocalDate;
+
+/**
+ * The DateRange record is an inclusive range of dates, such as a pay period. Dates are compared
+ * as epoch days, the form attendance records keep them in, so checking a record is two integer
+ * comparisons.
+ *
+ * @param startEpochDay The first date of the range as days since 1970-01-01.
+ * @param endEpochDay   The last date of the range as days since 1970-01-01.
+ */
+public record DateRange(int startEpochDay, int endEpochDay) {
+
+    /** The range containing every date. */
+    public static final DateRange ALL = new DateRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Validates the range.
+     *
+     * @throws IllegalArgumentException If the range ends before it starts.
+     */
+    public DateRange {
+        if (endEpochDay < startEpochDay) {
+            throw new IllegalArgumentException("The date range ends before it starts.");
+        }
+    }
+
+    /**
+     * Returns the range from {@code start} to {@code end}, both inclusive.
+     *
+     * @param start The first date.
+     * @param end   The last date.
+     * @return The range.
+     * @throws IllegalArgumentException If {@code end} is before {@code start}.
+     */
+    public static DateRange of(LocalDate start, LocalDate end) {
+        return new DateRange(Math.toIntExact(start.toEpochDay()), Math.toIntExact(end.toEpochDay()));
+    }
+
+    /**
+     * Returns whether a date falls in the range.
+     *
+     * @param epochDay The date as days since 1970-01-01.
+     * @return {@code true} if the date is in the range.
+     */
+    public boolean contains(int epochDay) {
+        return epochDay >= startEpochDay && epochDay <= endEpochDay;
+    }
+
+    /**
+     * Returns whether this is the range containing every date.
+     *
+     * @return {@code true} if no date is excluded.
+     */
+    public boolean isAll() {
+        return startEpochDay == Integer.MIN_VALUE && endEpochDay == Integer.MAX_VALUE;
+    }
+}
@@ -1,8 +1,10 @@
 package models;
 
 import org.apache.poi.ss.usermodel.Row;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import utils.Money;
+import utils.StringDictionary;
 
 /**
  * The Employee class represents an employee in the MotorPh payroll system.
@@ -19,16 +21,21 @@ public class Employee {
     private String philhealthNumber;
     private String tinNumber;
     private String pagibigNumber;
-    private String status;
-    private String position;
-    private String immediateSupervisor;
-    private double basicSalary;
-    private double riceSubsidy;
-    private double phoneAllowance;
-    private double clothingAllowance;
-    private double grossSemiMonthlyRate;
-    private double hourlyRate;
-    private List<String> attendanceRecords;
+    // Low-cardinality fields are held as codes in the shared string dictionary
+    private int status;
+    private int position;
+    private int immediateSupervisor;
+    private Money basicSalary;
+    private Money riceSubsidy;
+    private Money phoneAllowance;
+    private Money clothingAllowance;
+    private Money grossSemiMonthlyRate;
+    private Money hourlyRate;
+    private AttendanceLog attendance;
+    // Built from the attendance on demand and dropped whenever the attendance changes
+    private volatile AttendanceIndex attendanceIndex;
+    // Counts changes to the attendance, so results computed from it can tell they are stale
+    private long attendanceVersion;
     private double totalWorkedHours;
 
     /**
@@ -59,6 +66,40 @@ public class Employee {
                     String pagibigNumber, String status, String position, String immediateSupervisor,
                     double basicSalary, double riceSubsidy, double phoneAllowance, double clothingAllowance,
                     double grossSemiMonthlyRate, double hourlyRate) {
+        this(employeeNumber, lastName, firstName, birthday, address, phoneNumber, sssNumber, philhealthNumber,
+                tinNumber, pagibigNumber, status, position, immediateSupervisor, Money.of(basicSalary),
+                Money.of(riceSubsidy), Money.of(phoneAllowance), Money.of(clothingAllowance),
+                Money.of(grossSemiMonthlyRate), Money.of(hourlyRate));
+    }
+
+    /**
+     * Constructs a new Employee object with amounts already held as fixed-point money.
+     *
+     * @param employeeNumber      The employee's unique identification number.
+     * @param lastName            The employee's last name.
+     * @param firstName           The employee's first name.
+     * @param birthday            The employee's birthday.
+     * @param address             The employee's address.
+     * @param phoneNumber         The employee's phone number.
+     * @param sssNumber           The employee's SSS number.
+     * @param philhealthNumber    The employee's PhilHealth number.
+     * @param tinNumber           The employee's TIN number.
+     * @param pagibigNumber       The employee's Pag-IBIG number.
+     * @param status              The employee's employment status.
+     * @param position            The employee's job position.
+     * @param immediateSupervisor The employee's immediate supervisor.
+     * @param basicSalary         The employee's basic salary.
+     * @param riceSubsidy         The employee's rice subsidy allowance.
+     * @param phoneAllowance      The employee's phone allowance.
+     * @param clothingAllowance   The employee's clothing allowance.
+     * @param grossSemiMonthlyRate The employee's gross semi-monthly rate.
+     * @param hourlyRate          The employee's hourly rate.
+     */
+    public Employee(String employeeNumber, String lastName, String firstName, String birthday, String address,
+                    String phoneNumber, String sssNumber, String philhealthNumber, String tinNumber,
+                    String pagibigNumber, String status, String position, String immediateSupervisor,
+                    Money basicSalary, Money riceSubsidy, Money phoneAllowance, Money clothingAllowance,
+                    Money grossSemiMonthlyRate, Money hourlyRate) {
         this.employeeNumber = employeeNumber;
         this.lastName = lastName;
         this.firstName = firstName;
@@ -69,48 +110,86 @@ public class Employee {
         this.philhealthNumber = philhealthNumber;
         this.tinNumber = tinNumber;
         this.pagibigNumber = pagibigNumber;
-        this.status = status;
-        this.position = position;
-        this.immediateSupervisor = immediateSupervisor;
+        StringDictionary dictionary = StringDictionary.shared();
+        this.status = dictionary.encode(status);
+        this.position = dictionary.encode(position);
+        this.immediateSupervisor = dictionary.encode(immediateSupervisor);
         this.basicSalary = basicSalary;
         this.riceSubsidy = riceSubsidy;
         this.phoneAllowance = phoneAllowance;
         this.clothingAllowance = clothingAllowance;
         this.grossSemiMonthlyRate = grossSemiMonthlyRate;
         this.hourlyRate = hourlyRate;
-        this.attendanceRecords = new ArrayList<>();
+        this.attendance = AttendanceLog.create();
         this.totalWorkedHours = 0;
     }
 
     /**
-     * Adds an attendance record for the employee.
+     * Adds an attendance record for the employee. A row whose date or times cannot be parsed is
+     * skipped with a warning, like the readers skip unparseable rows. Times are stored as minutes,
+     * so they read back as H:mm.
      *
-     * @param date        The date of the attendance.
-     * @param logIn       The time the employee logged in.
-     * @param logOut      The time the employee logged out.
+     * @param date        The date of the attendance (MM/dd/yyyy).
+     * @param logIn       The time the employee logged in (H:mm).
+     * @param logOut      The time the employee logged out (H:mm).
      * @param workedHours The number of hours worked.
      */
     public void addAttendance(String date, String logIn, String logOut, double workedHours) {
-        attendanceRecords.add(String.format(
-            "Date: %s, Log In: %s, Log Out: %s, Worked Hours: %.2f",
-            date, logIn, logOut, workedHours
-        ));
+        int epochDay;
+        int logInMinute;
+        int logOutMinute;
+        try {
+            epochDay = AttendanceLog.parseEpochDay(date);
+            logInMinute = AttendanceLog.parseMinuteOfDay(logIn);
+            logOutMinute = AttendanceLog.parseMinuteOfDay(logOut);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println("Skipping invalid attendance row: " + e.getMessage());
+            return;
+        }
+        attendance.add(epochDay, logInMinute, logOutMinute, workedHours);
+        attendanceIndex = null;
+        attendanceVersion++;
         totalWorkedHours += workedHours;
     }
 
     /**
-     * Adds an attendance record for the employee, including whether they were late.
+     * Adds an attendance record for the employee, including whether they were late. A row whose
+     * date or times cannot be parsed is skipped with a warning.
      *
-     * @param date        The date of the attendance.
-     * @param logIn       The time the employee logged in.
-     * @param logOut      The time the employee logged out.
+     * @param date        The date of the attendance (MM/dd/yyyy).
+     * @param logIn       The time the employee logged in (H:mm).
+     * @param logOut      The time the employee logged out (H:mm).
      * @param workedHours The number of hours worked.
      * @param isLate      Whether the employee was late.
      */
     public void addAttendance(String date, String logIn, String logOut, double workedHours, boolean isLate) {
-        String record = String.format("Date: %s, LogIn: %s, LogOut: %s, Worked Hours: %.2f, Is Late: %b",
-                date, logIn, logOut, workedHours, isLate);
-        attendanceRecords.add(record);
+        int epochDay;
+        int logInMinute;
+        int logOutMinute;
+        try {
+            epochDay = AttendanceLog.parseEpochDay(date);
+            logInMinute = AttendanceLog.parseMinuteOfDay(logIn);
+            logOutMinute = AttendanceLog.parseMinuteOfDay(logOut);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println("Skipping invalid attendance row: " + e.getMessage());
+            return;
+        }
+        addAttendance(epochDay, logInMinute, logOutMinute, workedHours, isLate);
+    }
+
+    /**
+     * Adds an attendance record decoded into primitives, as produced by the memory-mapped CSV reader.
+     *
+     * @param epochDay     The date of the attendance as days since 1970-01-01.
+     * @param logInMinute  The log-in time as minutes after midnight.
+     * @param logOutMinute The log-out time as minutes after midnight.
+     * @param workedHours  The number of hours worked.
+     * @param isLate       Whether the employee was late.
+     */
+    public void addAttendance(int epochDay, int logInMinute, int logOutMinute, double workedHours, boolean isLate) {
+        attendance.add(epochDay, logInMinute, logOutMinute, workedHours, isLate);
+        attendanceIndex = null;
+        attendanceVersion++;
         totalWorkedHours += workedHours;
     }
 
@@ -163,12 +242,12 @@ public class Employee {
                 data[10], // status
                 data[11], // position
                 data[12], // immediateSupervisor
-                Double.parseDouble(data[13]), // basicSalary
-                Double.parseDouble(data[14]), // riceSubsidy
-                Double.parseDouble(data[15]), // phoneAllowance
-                Double.parseDouble(data[16]), // clothingAllowance
-                Double.parseDouble(data[17]), // grossSemiMonthlyRate
-                Double.parseDouble(data[18])  // hourlyRate
+                Money.parse(data[13]), // basicSalary
+                Money.parse(data[14]), // riceSubsidy
+                Money.parse(data[15]), // phoneAllowance
+                Money.parse(data[16]), // clothingAllowance
+                Money.parse(data[17]), // grossSemiMonthlyRate
+                Money.parse(data[18])  // hourlyRate
         );
     }
 
@@ -203,12 +282,71 @@ public class Employee {
     }
 
     /**
-     * Returns the list of attendance records for the employee.
+     * Removes all attendance records and resets the total worked hours, so attendance can be
+     * reloaded onto a cached employee.
+     */
+    public void clearAttendance() {
+        attendance.clear();
+        attendanceIndex = null;
+        attendanceVersion++;
+        totalWorkedHours = 0;
+    }
+
+    /**
+     * Replaces the employee's attendance log with an empty one, such as a log allocated for a new
+     * attendance load, and resets the total worked hours.
      *
-     * @return A list of attendance records as strings.
+     * @param attendance The new, empty attendance log.
+     */
+    public void replaceAttendance(AttendanceLog attendance) {
+        this.attendance = attendance;
+        attendanceIndex = null;
+        attendanceVersion++;
+        totalWorkedHours = 0;
+    }
+
+    /**
+     * Returns the list of attendance records for the employee. Each record is rendered from the
+     * typed attendance log when it is accessed.
+     *
+     * @return A read-only list of attendance records as strings.
      */
     public List<String> getAttendanceRecords() {
-        return attendanceRecords;
+        return attendance.asStrings();
+    }
+
+    /**
+     * Returns the employee's attendance as primitive columns.
+     *
+     * @return The attendance log.
+     */
+    public AttendanceLog getAttendance() {
+        return attendance;
+    }
+
+    /**
+     * Returns a number that changes whenever a record is added to or removed from the employee's
+     * attendance.
+     *
+     * @return The attendance version.
+     */
+    public long getAttendanceVersion() {
+        return attendanceVersion;
+    }
+
+    /**
+     * Returns the date-range index of the employee's attendance, building it if the attendance has
+     * changed since it was last built.
+     *
+     * @return The attendance index.
+     */
+    public AttendanceIndex getAttendanceIndex() {
+        AttendanceIndex index = attendanceIndex;
+        if (index == null) {
+            index = AttendanceIndex.of(attendance);
+            attendanceIndex = index;
+        }
+        return index;
     }
 
     /**
@@ -220,6 +358,24 @@ public class Employee {
         return this.firstName + " " + this.lastName;
     }
 
+    /**
+     * Returns the employee's last name.
+     *
+     * @return The last name.
+     */
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    /**
+     * Returns the employee's first name.
+     *
+     * @return The first name.
+     */
+    public String getFirstName() {
+        return this.firstName;
+    }
+
     /**
      * Returns the employee's birthday.
      *
@@ -274,6 +430,42 @@ public class Employee {
         return this.tinNumber;
     }
 
+    /**
+     * Returns the employee's Pag-IBIG number.
+     *
+     * @return The Pag-IBIG number.
+     */
+    public String getPagibigNumber() {
+        return this.pagibigNumber;
+    }
+
+    /**
+     * Returns the employee's employment status.
+     *
+     * @return The employment status.
+     */
+    public String getStatus() {
+        return StringDictionary.shared().decode(this.status);
+    }
+
+    /**
+     * Returns the employee's job position.
+     *
+     * @return The job position.
+     */
+    public String getPosition() {
+        return StringDictionary.shared().decode(this.position);
+    }
+
+    /**
+     * Returns the employee's immediate supervisor.
+     *
+     * @return The immediate supervisor.
+     */
+    public String getImmediateSupervisor() {
+        return StringDictionary.shared().decode(this.immediateSupervisor);
+    }
+
     /**
      * Returns the employee's unique identification number.
      *
@@ -298,6 +490,15 @@ public class Employee {
      * @return The hourly rate.
      */
     public double getHourlyRate() {
+        return hourlyRate.toDouble();
+    }
+
+    /**
+     * Returns the employee's hourly rate as fixed-point money.
+     *
+     * @return The hourly rate.
+     */
+    public Money getHourlyRateAmount() {
         return hourlyRate;
     }
 
@@ -307,9 +508,90 @@ public class Employee {
      * @return The basic salary.
      */
     public double getBasicSalary() {
+        return basicSalary.toDouble();
+    }
+
+    /**
+     * Returns the employee's basic salary as fixed-point money.
+     *
+     * @return The basic salary.
+     */
+    public Money getBasicSalaryAmount() {
         return basicSalary;
     }
 
+    /**
+     * Returns the employee's rice subsidy allowance.
+     *
+     * @return The rice subsidy allowance.
+     */
+    public double getRiceSubsidy() {
+        return riceSubsidy.toDouble();
+    }
+
+    /**
+     * Returns the employee's rice subsidy allowance as fixed-point money.
+     *
+     * @return The rice subsidy allowance.
+     */
+    public Money getRiceSubsidyAmount() {
+        return riceSubsidy;
+    }
+
+    /**
+     * Returns the employee's phone allowance.
+     *
+     * @return The phone allowance.
+     */
+    public double getPhoneAllowance() {
+        return phoneAllowance.toDouble();
+    }
+
+    /**
+     * Returns the employee's phone allowance as fixed-point money.
+     *
+     * @return The phone allowance.
+     */
+    public Money getPhoneAllowanceAmount() {
+        return phoneAllowance;
+    }
+
+    /**
+     * Returns the employee's clothing allowance.
+     *
+     * @return The clothing allowance.
+     */
+    public double getClothingAllowance() {
+        return clothingAllowance.toDouble();
+    }
+
+    /**
+     * Returns the employee's clothing allowance as fixed-point money.
+     *
+     * @return The clothing allowance.
+     */
+    public Money getClothingAllowanceAmount() {
+        return clothingAllowance;
+    }
+
+    /**
+     * Returns the employee's gross semi-monthly rate.
+     *
+     * @return The gross semi-monthly rate.
+     */
+    public double getGrossSemiMonthlyRate() {
+        return grossSemiMonthlyRate.toDouble();
+    }
+
+    /**
+     * Returns the employee's gross semi-monthly rate as fixed-point money.
+     *
+     * @return The gross semi-monthly rate.
+     */
+    public Money getGrossSemiMonthlyRateAmount() {
+        return grossSemiMonthlyRate;
+    }
+
     /**
      * Returns a string representation of the employee.
      *
@@ -319,7 +601,7 @@ public class Employee {
     public String toString() {
         return String.format(
             "Employee #: %s, Name: %s %s, Position: %s, Basic Salary: %.2f, Hourly Rate: %.2f",
-            employeeNumber, firstName, lastName, position, basicSalary, hourlyRate
+            employeeNumber, firstName, lastName, getPosition(), basicSalary.toDouble(), hourlyRate.toDouble()
         );
     }
 }
\ No newline at end of file
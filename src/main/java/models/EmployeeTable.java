@@ -0,0 +1,155 @@
+package models;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import utils.Money;
+
+/**
+ * The EmployeeTable class holds the compensation of a set of employees as parallel primitive
+ * columns: basic salary, rice subsidy, phone allowance, clothing allowance, gross semi-monthly rate
+ * and hourly rate, each in centavos. Row {@code i} of every column belongs to
+ * {@link #getEmployee(int)}, which remains the view for names, government numbers and attendance.
+ *
+ * Bulk payroll passes read the columns directly, walking contiguous arrays instead of following
+ * a reference per employee to each amount. The table is a snapshot: compensation is fixed once an
+ * employee is loaded, and the repository builds a new table whenever the employee file is reloaded.
+ */
+public class EmployeeTable {
+
+    private final Employee[] rows;
+    private final long[] basicSalaries;
+    private final long[] riceSubsidies;
+    private final long[] phoneAllowances;
+    private final long[] clothingAllowances;
+    private final long[] grossSemiMonthlyRates;
+    private final long[] hourlyRates;
+
+    /**
+     * Builds the table from employees, keeping their order.
+     *
+     * @param employees The employees.
+     */
+    public EmployeeTable(Collection<Employee> employees) {
+        this.rows = employees.toArray(new Employee[0]);
+        int size = rows.length;
+        this.basicSalaries = new long[size];
+        this.riceSubsidies = new long[size];
+        this.phoneAllowances = new long[size];
+        this.clothingAllowances = new long[size];
+        this.grossSemiMonthlyRates = new long[size];
+        this.hourlyRates = new long[size];
+        for (int row = 0; row < size; row++) {
+            Employee employee = rows[row];
+            basicSalaries[row] = employee.getBasicSalaryAmount().getCentavos();
+            riceSubsidies[row] = employee.getRiceSubsidyAmount().getCentavos();
+            phoneAllowances[row] = employee.getPhoneAllowanceAmount().getCentavos();
+            clothingAllowances[row] = employee.getClothingAllowanceAmount().getCentavos();
+            grossSemiMonthlyRates[row] = employee.getGrossSemiMonthlyRateAmount().getCentavos();
+            hourlyRates[row] = employee.getHourlyRateAmount().getCentavos();
+        }
+    }
+
+    /**
+     * Returns the number of employees.
+     *
+     * @return The row count.
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the employee in a row.
+     *
+     * @param row The row.
+     * @return The employee.
+     */
+    public Employee getEmployee(int row) {
+        return rows[row];
+    }
+
+    /**
+     * Returns the employees in row order.
+     *
+     * @return An unmodifiable view of the employees.
+     */
+    public List<Employee> getEmployees() {
+        return Collections.unmodifiableList(Arrays.asList(rows));
+    }
+
+    /**
+     * Returns the basic salaries in centavos. The array belongs to the table and must not be modified.
+     *
+     * @return The basic salary column.
+     */
+    public long[] getBasicSalaries() {
+        return basicSalaries;
+    }
+
+    /**
+     * Returns the rice subsidies in centavos. The array belongs to the table and must not be modified.
+     *
+     * @return The rice subsidy column.
+     */
+    public long[] getRiceSubsidies() {
+        return riceSubsidies;
+    }
+
+    /**
+     * Returns the phone allowances in centavos. The array belongs to the table and must not be modified.
+     *
+     * @return The phone allowance column.
+     */
+    public long[] getPhoneAllowances() {
+        return phoneAllowances;
+    }
+
+    /**
+     * Returns the clothing allowances in centavos. The array belongs to the table and must not be modified.
+     *
+     * @return The clothing allowance column.
+     */
+    public long[] getClothingAllowances() {
+        return clothingAllowances;
+    }
+
+    /**
+     * Returns the gross semi-monthly rates in centavos. The array belongs to the table and must not be modified.
+     *
+     * @return The gross semi-monthly rate column.
+     */
+    public long[] getGrossSemiMonthlyRates() {
+        return grossSemiMonthlyRates;
+    }
+
+    /**
+     * Returns the hourly rates in centavos. The array belongs to the table and must not be modified.
+     *
+     * @return The hourly rate column.
+     */
+    public long[] getHourlyRates() {
+        return hourlyRates;
+    }
+
+    /**
+     * Returns the basic salary in a row.
+     *
+     * @param row The row.
+     * @return The basic salary.
+     */
+    public Money getBasicSalary(int row) {
+        return Money.ofCentavos(basicSalaries[row]);
+    }
+
+    /**
+     * Returns the hourly rate in a row.
+     *
+     * @param row The row.
+     * @return The hourly rate.
+     */
+    public Money getHourlyRate(int row) {
+        return Money.ofCentavos(hourlyRates[row]);
+    }
+}
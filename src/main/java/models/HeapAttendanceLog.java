@@ -0,0 +1,90 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * The HeapAttendanceLog class keeps attendance columns in primitive arrays on the Java heap.
+ */
+public class HeapAttendanceLog extends AttendanceLog {
+
+    private int[] epochDays;
+    private short[] logIns;
+    private short[] logOuts;
+    private double[] workedHours;
+    private byte[] flags;
+    private int size;
+
+    /**
+     * Constructs an empty attendance log.
+     */
+    public HeapAttendanceLog() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty attendance log with room for the given number of records.
+     *
+     * @param initialCapacity The number of records to allocate space for.
+     */
+    public HeapAttendanceLog(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        epochDays = new int[capacity];
+        logIns = new short[capacity];
+        logOuts = new short[capacity];
+        workedHours = new double[capacity];
+        flags = new byte[capacity];
+    }
+
+    @Override
+    protected void append(int epochDay, int logInMinute, int logOutMinute, double hours, byte flag) {
+        if (size == epochDays.length) {
+            int capacity = size * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            logIns = Arrays.copyOf(logIns, capacity);
+            logOuts = Arrays.copyOf(logOuts, capacity);
+            workedHours = Arrays.copyOf(workedHours, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        epochDays[size] = epochDay;
+        logIns[size] = (short) logInMinute;
+        logOuts[size] = (short) logOutMinute;
+        workedHours[size] = hours;
+        flags[size] = flag;
+        size++;
+    }
+
+    @Override
+    protected byte getFlags(int index) {
+        return flags[index];
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    @Override
+    public int getLogInMinute(int index) {
+        return logIns[index];
+    }
+
+    @Override
+    public int getLogOutMinute(int index) {
+        return logOuts[index];
+    }
+
+    @Override
+    public double getWorkedHours(int index) {
+        return workedHours[index];
+    }
+}
@@ -0,0 +1,142 @@
+package models;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * The OffHeapAttendanceLog class keeps an employee's attendance as fixed-width records in a native
+ * {@link MemorySegment}, so multi-year histories add almost nothing to the Java heap or to GC work.
+ * Records are read in place; nothing is copied onto the heap.
+ *
+ * A log created for an attendance load takes its segments from the load's {@link AttendanceMemory},
+ * which frees them all when the load is replaced. A log created on its own uses an automatic arena,
+ * whose segments the garbage collector releases once the log (or a segment it has outgrown) is no
+ * longer reachable. Nothing is allocated until the first record is added.
+ */
+public class OffHeapAttendanceLog extends AttendanceLog {
+
+    /**
+     * Layout of one attendance record: 24 bytes, 8-byte aligned.
+     */
+    public static final StructLayout RECORD = MemoryLayout.structLayout(
+            ValueLayout.JAVA_INT.withName("epochDay"),
+            ValueLayout.JAVA_SHORT.withName("logInMinute"),
+            ValueLayout.JAVA_SHORT.withName("logOutMinute"),
+            ValueLayout.JAVA_DOUBLE.withName("workedHours"),
+            ValueLayout.JAVA_BYTE.withName("flags"),
+            MemoryLayout.paddingLayout(7));
+
+    private static final long RECORD_SIZE = RECORD.byteSize();
+    private static final long EPOCH_DAY = RECORD.byteOffset(MemoryLayout.PathElement.groupElement("epochDay"));
+    private static final long LOG_IN = RECORD.byteOffset(MemoryLayout.PathElement.groupElement("logInMinute"));
+    private static final long LOG_OUT = RECORD.byteOffset(MemoryLayout.PathElement.groupElement("logOutMinute"));
+    private static final long WORKED_HOURS = RECORD.byteOffset(MemoryLayout.PathElement.groupElement("workedHours"));
+    private static final long FLAGS = RECORD.byteOffset(MemoryLayout.PathElement.groupElement("flags"));
+
+    // Null for a log that allocates from an automatic arena
+    private final AttendanceMemory memory;
+    private MemorySegment records;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty attendance log backed by an automatic arena.
+     */
+    public OffHeapAttendanceLog() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty attendance log backed by an automatic arena, with room for the given
+     * number of records once the first record is added.
+     *
+     * @param initialCapacity The number of records to allocate space for.
+     */
+    public OffHeapAttendanceLog(int initialCapacity) {
+        this(null, initialCapacity);
+    }
+
+    /**
+     * Constructs an empty attendance log that allocates from the memory of an attendance load.
+     *
+     * @param memory The memory of the load.
+     */
+    public OffHeapAttendanceLog(AttendanceMemory memory) {
+        this(memory, 16);
+    }
+
+    private OffHeapAttendanceLog(AttendanceMemory memory, int initialCapacity) {
+        this.memory = memory;
+        this.capacity = Math.max(initialCapacity, 1);
+    }
+
+    private MemorySegment allocate(int recordCount) {
+        return memory == null
+                ? Arena.ofAuto().allocate(RECORD_SIZE * recordCount, RECORD.byteAlignment())
+                : memory.allocate(RECORD_SIZE * recordCount, RECORD.byteAlignment());
+    }
+
+    @Override
+    protected void append(int epochDay, int logInMinute, int logOutMinute, double hours, byte flag) {
+        if (records == null) {
+            records = allocate(capacity);
+        } else if (size == capacity) {
+            MemorySegment grown = allocate(capacity * 2);
+            MemorySegment.copy(records, 0, grown, 0, RECORD_SIZE * size);
+            records = grown;
+            capacity *= 2;
+        }
+        long base = size * RECORD_SIZE;
+        records.set(ValueLayout.JAVA_INT, base + EPOCH_DAY, epochDay);
+        records.set(ValueLayout.JAVA_SHORT, base + LOG_IN, (short) logInMinute);
+        records.set(ValueLayout.JAVA_SHORT, base + LOG_OUT, (short) logOutMinute);
+        records.set(ValueLayout.JAVA_DOUBLE, base + WORKED_HOURS, hours);
+        records.set(ValueLayout.JAVA_BYTE, base + FLAGS, flag);
+        size++;
+    }
+
+    @Override
+    protected byte getFlags(int index) {
+        return records.get(ValueLayout.JAVA_BYTE, offset(index) + FLAGS);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(int index) {
+        return records.get(ValueLayout.JAVA_INT, offset(index) + EPOCH_DAY);
+    }
+
+    @Override
+    public int getLogInMinute(int index) {
+        return records.get(ValueLayout.JAVA_SHORT, offset(index) + LOG_IN);
+    }
+
+    @Override
+    public int getLogOutMinute(int index) {
+        return records.get(ValueLayout.JAVA_SHORT, offset(index) + LOG_OUT);
+    }
+
+    @Override
+    public double getWorkedHours(int index) {
+        return records.get(ValueLayout.JAVA_DOUBLE, offset(index) + WORKED_HOURS);
+    }
+
+    private long offset(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,275 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import utils.Money;
+
+/**
+ * The PayrollResult class holds everything computed for one employee in a payroll run: the
+ * weekly hour totals with their overtime and one pay period per 4 weeks of attendance. Results
+ * are computed first and displayed afterwards, so employees can be computed in parallel while the
+ * output stays in employee order.
+ *
+ * Weeks and pay periods remember the index of the last attendance record they cover, so the
+ * output can show them right after that record.
+ */
+public class PayrollResult {
+
+    private final Employee employee;
+    private final List<Week> weeks = new ArrayList<>();
+    private final List<PayPeriod> payPeriods = new ArrayList<>();
+
+    /**
+     * Constructs an empty result for an employee.
+     *
+     * @param employee The employee.
+     */
+    public PayrollResult(Employee employee) {
+        this.employee = employee;
+    }
+
+    /**
+     * Adds a completed week.
+     *
+     * @param week The week.
+     */
+    public void addWeek(Week week) {
+        weeks.add(week);
+    }
+
+    /**
+     * Adds a completed pay period.
+     *
+     * @param payPeriod The pay period.
+     */
+    public void addPayPeriod(PayPeriod payPeriod) {
+        payPeriods.add(payPeriod);
+    }
+
+    /**
+     * Returns the employee.
+     *
+     * @return The employee.
+     */
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    /**
+     * Returns the weeks in order.
+     *
+     * @return An unmodifiable list of weeks.
+     */
+    public List<Week> getWeeks() {
+        return Collections.unmodifiableList(weeks);
+    }
+
+    /**
+     * Returns the pay periods in order.
+     *
+     * @return An unmodifiable list of pay periods.
+     */
+    public List<PayPeriod> getPayPeriods() {
+        return Collections.unmodifiableList(payPeriods);
+    }
+
+    /**
+     * The hours worked in one week and the overtime they earned.
+     */
+    public static class Week {
+        private final int lastRecord;
+        private final int number;
+        private final long totalHundredths;
+        private final long overtimeHundredths;
+        private final Money overtimePay;
+
+        /**
+         * Constructs a week.
+         *
+         * @param lastRecord         The index of the last attendance record in the week.
+         * @param number             The week number, starting at 1.
+         * @param totalHundredths    The hours worked, in hundredths of an hour.
+         * @param overtimeHundredths The hours beyond 40, in hundredths of an hour.
+         * @param overtimePay        The overtime pay.
+         */
+        public Week(int lastRecord, int number, long totalHundredths, long overtimeHundredths, Money overtimePay) {
+            this.lastRecord = lastRecord;
+            this.number = number;
+            this.totalHundredths = totalHundredths;
+            this.overtimeHundredths = overtimeHundredths;
+            this.overtimePay = overtimePay;
+        }
+
+        /**
+         * Returns the index of the last attendance record covered.
+         *
+         * @return The record index.
+         */
+        public int getLastRecord() {
+            return lastRecord;
+        }
+
+        /**
+         * Returns the week number, starting at 1.
+         *
+         * @return The week number.
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        /**
+         * Returns the hours worked in the week.
+         *
+         * @return The total hours.
+         */
+        public double getTotalHours() {
+            return totalHundredths / 100.0;
+        }
+
+        /**
+         * Returns the hours worked in the week, in hundredths of an hour.
+         *
+         * @return The total hours times 100.
+         */
+        public long getTotalHundredths() {
+            return totalHundredths;
+        }
+
+        /**
+         * Returns the hours worked beyond 40, in hundredths of an hour.
+         *
+         * @return The overtime hours times 100.
+         */
+        public long getOvertimeHundredths() {
+            return overtimeHundredths;
+        }
+
+        /**
+         * Returns the hours worked beyond 40.
+         *
+         * @return The overtime hours.
+         */
+        public double getOvertimeHours() {
+            return overtimeHundredths / 100.0;
+        }
+
+        /**
+         * Returns the overtime pay for the week.
+         *
+         * @return The overtime pay.
+         */
+        public Money getOvertimePay() {
+            return overtimePay;
+        }
+    }
+
+    /**
+     * The salary and deductions of one 4-week pay period.
+     */
+    public static class PayPeriod {
+        private final int lastRecord;
+        private final Money totalSalary;
+        private final Money sssContribution;
+        private final Money philHealthEmployeeShare;
+        private final Money[] pagIbigContribution;
+        private final Money withholdingTax;
+        private final Money allowance;
+
+        /**
+         * Constructs a pay period.
+         *
+         * @param lastRecord              The index of the last attendance record in the period.
+         * @param totalSalary             The salary including overtime.
+         * @param sssContribution         The SSS contribution.
+         * @param philHealthEmployeeShare The PhilHealth employee share.
+         * @param pagIbigContribution     The Pag-IBIG employee, employer and total contributions.
+         * @param withholdingTax          The withholding tax.
+         * @param allowance               The allowance.
+         */
+        public PayPeriod(int lastRecord, Money totalSalary, Money sssContribution, Money philHealthEmployeeShare,
+                         Money[] pagIbigContribution, Money withholdingTax, Money allowance) {
+            this.lastRecord = lastRecord;
+            this.totalSalary = totalSalary;
+            this.sssContribution = sssContribution;
+            this.philHealthEmployeeShare = philHealthEmployeeShare;
+            this.pagIbigContribution = pagIbigContribution;
+            this.withholdingTax = withholdingTax;
+            this.allowance = allowance;
+        }
+
+        /**
+         * Returns the index of the last attendance record covered.
+         *
+         * @return The record index.
+         */
+        public int getLastRecord() {
+            return lastRecord;
+        }
+
+        /**
+         * Returns the salary for the period, including overtime.
+         *
+         * @return The total salary.
+         */
+        public Money getTotalSalary() {
+            return totalSalary;
+        }
+
+        /**
+         * Returns the SSS contribution.
+         *
+         * @return The SSS contribution.
+         */
+        public Money getSSSContribution() {
+            return sssContribution;
+        }
+
+        /**
+         * Returns the PhilHealth employee share.
+         *
+         * @return The PhilHealth employee share.
+         */
+        public Money getPhilHealthEmployeeShare() {
+            return philHealthEmployeeShare;
+        }
+
+        /**
+         * Returns the Pag-IBIG contribution.
+         *
+         * @return The employee, employer and total contributions.
+         */
+        public Money[] getPagIbigContribution() {
+            return pagIbigContribution.clone();
+        }
+
+        /**
+         * Returns the withholding tax.
+         *
+         * @return The withholding tax.
+         */
+        public Money getWithholdingTax() {
+            return withholdingTax;
+        }
+
+        /**
+         * Returns the allowance.
+         *
+         * @return The allowance.
+         */
+        public Money getAllowance() {
+            return allowance;
+        }
+
+        /**
+         * Returns the net salary: the total salary less the employee's deductions, plus the allowance.
+         *
+         * @return The net salary.
+         */
+        public Money getNetSalary() {
+            return totalSalary.minus(sssContribution).minus(philHealthEmployeeShare)
+                    .minus(pagIbigContribution[0]).minus(withholdingTax).plus(allowance);
+        }
+    }
+}
@@ -1,54 +1,95 @@
 package models;
 
-import com.opencsv.bean.CsvBindByName;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import utils.StringDictionary;
 
 /**
  * Represents a work log entry for an employee, including details such as employee ID,
  * name, date, log-in and log-out times, and total worked hours.
- * This class is used to map CSV data to Java objects using OpenCSV annotations.
+ * Entries are filled from the work log CSV by {@code services.WorkLogEntryBinder}.
+ *
+ * The employee ID and names repeat in every row of an employee, so they are held as codes in the
+ * shared {@link StringDictionary}. The date, times and worked hours are nearly unique per row, so
+ * they are held as primitives instead: the date as an epoch day, and the times and hours as minutes.
+ * They are formatted again when read. A value that does not parse is kept as text, so it still
+ * reads back as it was written.
  */
 public class WorkLogEntry {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
     /** The employee's ID. */
-    @CsvBindByName(column = "Employee #")
-    private String employeeId;
+    private int employeeId = StringDictionary.NULL_CODE;
 
     /** The employee's last name. */
-    @CsvBindByName(column = "Last Name")
-    private String lastName;
+    private int lastName = StringDictionary.NULL_CODE;
 
     /** The employee's first name. */
-    @CsvBindByName(column = "First Name")
-    private String firstName;
+    private int firstName = StringDictionary.NULL_CODE;
+
+    // Positions of the primitive fields in the unparsed text
+    private static final int DATE = 0;
+    private static final int LOG_IN = 1;
+    private static final int LOG_OUT = 2;
+    private static final int TOTAL_WORKED_HOURS = 3;
+
+    // Marks a missing value
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final short NO_MINUTES = -1;
+
+    /** The date of the work log entry, as days since 1970-01-01. */
+    private int date = NO_DATE;
 
-    /** The date of the work log entry. */
-    @CsvBindByName(column = "Date")
-    private String date;
+    /** The time the employee logged in, as minutes after midnight. */
+    private short logIn = NO_MINUTES;
 
-    /** The time the employee logged in. */
-    @CsvBindByName(column = "Log In")
-    private String logIn;
+    /** The time the employee logged out, as minutes after midnight. */
+    private short logOut = NO_MINUTES;
 
-    /** The time the employee logged out. */
-    @CsvBindByName(column = "Log Out")
-    private String logOut;
+    /** The total time worked by the employee for the day, in minutes. */
+    private short totalWorkedHours = NO_MINUTES;
 
-    /** The total hours worked by the employee for the day. */
-    @CsvBindByName(column = "Total Worked Hours \nDaily")
-    private String totalWorkedHours;
+    /** The text of fields that did not parse, by position; null while every field parsed. */
+    private String[] unparsed;
 
     /**
-     * Default no-argument constructor required by OpenCSV for bean mapping.
+     * Constructs an empty work log entry; the fields are set afterwards.
      */
     public WorkLogEntry() {
     }
 
+    /**
+     * Constructs a work log entry from its values. Unlike the setters, this constructor does not
+     * warn about empty values; callers that bind many records report them in aggregate.
+     *
+     * @param employeeId       The employee's ID.
+     * @param lastName         The employee's last name.
+     * @param firstName        The employee's first name.
+     * @param date             The date of the work log entry.
+     * @param logIn            The log-in time.
+     * @param logOut           The log-out time.
+     * @param totalWorkedHours The total hours worked.
+     */
+    public WorkLogEntry(String employeeId, String lastName, String firstName, String date,
+                        String logIn, String logOut, String totalWorkedHours) {
+        StringDictionary dictionary = StringDictionary.shared();
+        this.employeeId = dictionary.encode(employeeId);
+        this.lastName = dictionary.encode(lastName);
+        this.firstName = dictionary.encode(firstName);
+        storeDate(date);
+        this.logIn = parseMinutes(LOG_IN, logIn);
+        this.logOut = parseMinutes(LOG_OUT, logOut);
+        this.totalWorkedHours = parseMinutes(TOTAL_WORKED_HOURS, totalWorkedHours);
+    }
+
     /**
      * Gets the employee's ID.
      *
      * @return The employee's ID.
      */
     public String getEmployeeId() {
-        return employeeId;
+        return StringDictionary.shared().decode(employeeId);
     }
 
     /**
@@ -60,7 +101,7 @@ public class WorkLogEntry {
         if (isEmpty(employeeId)) {
             System.out.println("Warning: Employee ID is required but is empty.");
         }
-        this.employeeId = employeeId;
+        this.employeeId = StringDictionary.shared().encode(employeeId);
     }
 
     /**
@@ -69,7 +110,7 @@ public class WorkLogEntry {
      * @return The employee's last name.
      */
     public String getLastName() {
-        return lastName;
+        return StringDictionary.shared().decode(lastName);
     }
 
     /**
@@ -81,7 +122,7 @@ public class WorkLogEntry {
         if (isEmpty(lastName)) {
             System.out.println("Warning: Last Name is required but is empty.");
         }
-        this.lastName = lastName;
+        this.lastName = StringDictionary.shared().encode(lastName);
     }
 
     /**
@@ -90,7 +131,7 @@ public class WorkLogEntry {
      * @return The employee's first name.
      */
     public String getFirstName() {
-        return firstName;
+        return StringDictionary.shared().decode(firstName);
     }
 
     /**
@@ -102,7 +143,7 @@ public class WorkLogEntry {
         if (isEmpty(firstName)) {
             System.out.println("Warning: First Name is required but is empty.");
         }
-        this.firstName = firstName;
+        this.firstName = StringDictionary.shared().encode(firstName);
     }
 
     /**
@@ -111,7 +152,10 @@ public class WorkLogEntry {
      * @return The date of the work log entry.
      */
     public String getDate() {
-        return date;
+        if (date == NO_DATE) {
+            return unparsedText(DATE);
+        }
+        return LocalDate.ofEpochDay(date).format(DATE_FORMAT);
     }
 
     /**
@@ -123,7 +167,7 @@ public class WorkLogEntry {
         if (isEmpty(date)) {
             System.out.println("Warning: Date is required but is empty.");
         }
-        this.date = date;
+        storeDate(date);
     }
 
     /**
@@ -132,7 +176,7 @@ public class WorkLogEntry {
      * @return The log-in time.
      */
     public String getLogIn() {
-        return logIn;
+        return formatMinutes(LOG_IN, logIn);
     }
 
     /**
@@ -144,7 +188,7 @@ public class WorkLogEntry {
         if (isEmpty(logIn)) {
             System.out.println("Warning: Log In time is required but is empty.");
         }
-        this.logIn = logIn;
+        this.logIn = parseMinutes(LOG_IN, logIn);
     }
 
     /**
@@ -153,7 +197,7 @@ public class WorkLogEntry {
      * @return The log-out time.
      */
     public String getLogOut() {
-        return logOut;
+        return formatMinutes(LOG_OUT, logOut);
     }
 
     /**
@@ -165,7 +209,7 @@ public class WorkLogEntry {
         if (isEmpty(logOut)) {
             System.out.println("Warning: Log Out time is required but is empty.");
         }
-        this.logOut = logOut;
+        this.logOut = parseMinutes(LOG_OUT, logOut);
     }
 
     /**
@@ -174,7 +218,7 @@ public class WorkLogEntry {
      * @return The total hours worked.
      */
     public String getTotalWorkedHours() {
-        return totalWorkedHours;
+        return formatMinutes(TOTAL_WORKED_HOURS, totalWorkedHours);
     }
 
     /**
@@ -186,7 +230,59 @@ public class WorkLogEntry {
         if (isEmpty(totalWorkedHours)) {
             System.out.println("Warning: Total Worked Hours is required but is empty.");
         }
-        this.totalWorkedHours = totalWorkedHours;
+        this.totalWorkedHours = parseMinutes(TOTAL_WORKED_HOURS, totalWorkedHours);
+    }
+
+    private void storeDate(String text) {
+        setUnparsed(DATE, null);
+        date = NO_DATE;
+        if (text != null) {
+            try {
+                date = AttendanceLog.parseEpochDay(text);
+            } catch (DateTimeException e) {
+                setUnparsed(DATE, text);
+            }
+        }
+    }
+
+    // Parses H:mm into minutes, keeping the text instead if it would not read back the same
+    private short parseMinutes(int field, String text) {
+        setUnparsed(field, null);
+        if (text == null) {
+            return NO_MINUTES;
+        }
+        // 08:59 parses, but would read back as 8:59
+        if (text.length() == 5 && text.charAt(0) == '0') {
+            setUnparsed(field, text);
+            return NO_MINUTES;
+        }
+        try {
+            return (short) AttendanceLog.parseMinuteOfDay(text);
+        } catch (IllegalArgumentException e) {
+            setUnparsed(field, text);
+            return NO_MINUTES;
+        }
+    }
+
+    private String formatMinutes(int field, short minutes) {
+        if (minutes == NO_MINUTES) {
+            return unparsedText(field);
+        }
+        return String.format("%d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private void setUnparsed(int field, String text) {
+        if (text == null && unparsed == null) {
+            return;
+        }
+        if (unparsed == null) {
+            unparsed = new String[4];
+        }
+        unparsed[field] = text;
+    }
+
+    private String unparsedText(int field) {
+        return unparsed == null ? null : unparsed[field];
     }
 
     /**
@@ -195,7 +291,7 @@ public class WorkLogEntry {
      * @param value The string to check.
      * @return {@code true} if the string is null or empty (after trimming), otherwise {@code false}.
      */
-    private boolean isEmpty(String value) {
+    private static boolean isEmpty(String value) {
         return value == null || value.trim().isEmpty();
     }
 
@@ -207,13 +303,13 @@ public class WorkLogEntry {
     @Override
     public String toString() {
         return "WorkLogEntry{" +
-                "employeeId='" + employeeId + '\'' +
-                ", lastName='" + lastName + '\'' +
-                ", firstName='" + firstName + '\'' +
-                ", date='" + date + '\'' +
-                ", logIn='" + logIn + '\'' +
-                ", logOut='" + logOut + '\'' +
-                ", totalWorkedHours='" + totalWorkedHours + '\'' +
+                "employeeId='" + getEmployeeId() + '\'' +
+                ", lastName='" + getLastName() + '\'' +
+                ", firstName='" + getFirstName() + '\'' +
+                ", date='" + getDate() + '\'' +
+                ", logIn='" + getLogIn() + '\'' +
+                ", logOut='" + getLogOut() + '\'' +
+                ", totalWorkedHours='" + getTotalWorkedHours() + '\'' +
                 '}';
     }
-}
\ No newline at end of file
+}
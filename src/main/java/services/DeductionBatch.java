@@ -0,0 +1,311 @@
+package services;
+
+import java.time.LocalDate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import utils.Money;
+
+/**
+ * The DeductionBatch class computes the statutory deductions of many employees at once: SSS,
+ * the PhilHealth employee share, the Pag-IBIG contributions and the withholding tax. Salaries and
+ * results are held as parallel arrays of centavos, one entry per employee.
+ *
+ * The vectorized kernel is optional. It is only compiled by the {@code vector} Maven profile
+ * ({@code mvn -Pvector package}), and only used when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}; then each deduction is computed with SIMD lanes and
+ * branchless bracket selection. Otherwise a scalar loop over the same arrays is used. Both give
+ * exactly the results of the single-employee calculators.
+ */
+public final class DeductionBatch {
+
+    // Logger instance using java.util.logging
+    private static final Logger logger = Logger.getLogger(DeductionBatch.class.getName());
+
+    /**
+     * Computes leading batch entries ahead of the scalar loop.
+     */
+    interface Kernel {
+
+        /**
+         * Computes as many leading entries as the kernel can.
+         *
+         * @return The number of entries computed; the rest is left to the scalar loop.
+         */
+        int compute(DeductionBatch batch, SSSContributionSchedule sssSchedule);
+    }
+
+    // The Vector API kernel, or null if it was not compiled in or the module is not loaded
+    private static final Kernel VECTOR_KERNEL = loadVectorKernel();
+
+    static {
+        logger.log(Level.FINE, "Batch deductions use {0}", VECTOR_KERNEL != null ? "the Vector API" : "scalar loops");
+    }
+
+    final long[] salaries;
+    final long[] sssContributions;
+    final long[] philHealthEmployeeShares;
+    final long[] pagIbigEmployeeContributions;
+    final long[] pagIbigEmployerContributions;
+    final long[] pagIbigTotalContributions;
+    final long[] withholdingTaxes;
+
+    private DeductionBatch(long[] salaries) {
+        int size = salaries.length;
+        this.salaries = salaries;
+        this.sssContributions = new long[size];
+        this.philHealthEmployeeShares = new long[size];
+        this.pagIbigEmployeeContributions = new long[size];
+        this.pagIbigEmployerContributions = new long[size];
+        this.pagIbigTotalContributions = new long[size];
+        this.withholdingTaxes = new long[size];
+    }
+
+    /**
+     * Returns whether batches are computed with the Vector API in this JVM.
+     *
+     * @return {@code true} if the vectorized kernels are used.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_KERNEL != null;
+    }
+
+    private static Kernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Kernel) Class.forName("services.VectorDeductionKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            logger.log(Level.FINE, "The Vector API kernel is not compiled in; build with -Pvector to include it.");
+            return null;
+        }
+    }
+
+    /**
+     * Computes the deductions for monthly salaries given in pesos, rounding each to the centavo.
+     *
+     * @param monthlySalaries The monthly salaries in pesos.
+     * @param payDate         The pay date, which selects the SSS schedule.
+     * @return The computed batch.
+     * @throws IllegalArgumentException If a salary is negative.
+     */
+    public static DeductionBatch calculate(double[] monthlySalaries, LocalDate payDate) {
+        long[] centavos = new long[monthlySalaries.length];
+        for (int i = 0; i < centavos.length; i++) {
+            centavos[i] = Money.of(monthlySalaries[i]).getCentavos();
+        }
+        return calculate(centavos, SSSContributionCalculator.scheduleFor(payDate));
+    }
+
+    /**
+     * Computes the deductions for monthly salaries given in centavos.
+     *
+     * @param monthlySalaries The monthly salaries in centavos.
+     * @param payDate         The pay date, which selects the SSS schedule.
+     * @return The computed batch.
+     * @throws IllegalArgumentException If a salary is negative.
+     */
+    public static DeductionBatch calculate(long[] monthlySalaries, LocalDate payDate) {
+        return calculate(monthlySalaries, SSSContributionCalculator.scheduleFor(payDate));
+    }
+
+    /**
+     * Computes the deductions for monthly salaries given in centavos with a specific SSS schedule.
+     *
+     * @param monthlySalaries The monthly salaries in centavos.
+     * @param sssSchedule     The SSS schedule to use.
+     * @return The computed batch.
+     * @throws IllegalArgumentException If a salary is negative.
+     */
+    public static DeductionBatch calculate(long[] monthlySalaries, SSSContributionSchedule sssSchedule) {
+        return calculate(monthlySalaries, sssSchedule, VECTOR_KERNEL != null);
+    }
+
+    static DeductionBatch calculate(long[] monthlySalaries, SSSContributionSchedule sssSchedule, boolean vectorized) {
+        for (long salary : monthlySalaries) {
+            if (salary < 0) {
+                logger.log(Level.SEVERE, "Invalid salary: {0}. Salary cannot be negative.", Money.ofCentavos(salary));
+                throw new IllegalArgumentException("Salary cannot be negative.");
+            }
+        }
+
+        DeductionBatch batch = new DeductionBatch(monthlySalaries.clone());
+        int done = vectorized && VECTOR_KERNEL != null ? VECTOR_KERNEL.compute(batch, sssSchedule) : 0;
+        batch.computeScalar(done, batch.size(), sssSchedule);
+        return batch;
+    }
+
+    /**
+     * Computes entries {@code [from, to)} one at a time, with the same arithmetic as the calculators.
+     */
+    private void computeScalar(int from, int to, SSSContributionSchedule sssSchedule) {
+        long[] sssTable = sssSchedule.contributionCentavos();
+        long phMinSalary = PhilHealthCalculator.MIN_SALARY_FOR_MIN_PREMIUM.getCentavos();
+        long phMaxSalary = PhilHealthCalculator.MAX_SALARY_FOR_MAX_PREMIUM.getCentavos();
+        long phMinPremium = PhilHealthCalculator.MIN_MONTHLY_PREMIUM.getCentavos();
+        long phMaxPremium = PhilHealthCalculator.MAX_MONTHLY_PREMIUM.getCentavos();
+        long piLowerMin = PagIbigContributionCalculator.LOWER_BRACKET_MIN.getCentavos();
+        long piLowerMax = PagIbigContributionCalculator.LOWER_BRACKET_MAX.getCentavos();
+        long piCap = PagIbigContributionCalculator.MAX_CONTRIBUTION.getCentavos();
+
+        for (int i = from; i < to; i++) {
+            long salary = salaries[i];
+
+            // SSS
+            sssContributions[i] = sssTable[sssSchedule.bracketIndex(salary)];
+
+            // PhilHealth: 3% clamped to the minimum and maximum premium, split in half
+            long premium;
+            if (salary <= phMinSalary) {
+                premium = phMinPremium;
+            } else if (salary >= phMaxSalary) {
+                premium = phMaxPremium;
+            } else {
+                premium = Money.roundedDivide(salary * PhilHealthCalculator.PREMIUM_RATE_PERCENT, 100);
+            }
+            philHealthEmployeeShares[i] = Money.roundedDivide(premium, 2);
+
+            // Pag-IBIG
+            long employee = 0;
+            long employer = 0;
+            if (salary >= piLowerMin && salary <= piLowerMax) {
+                employee = Money.roundedDivide(salary * PagIbigContributionCalculator.RATE_1, 100);
+                employer = Money.roundedDivide(salary * PagIbigContributionCalculator.EMPLOYER_RATE, 100);
+            } else if (salary > piLowerMax) {
+                employee = Money.roundedDivide(salary * PagIbigContributionCalculator.RATE_2, 100);
+                employer = Money.roundedDivide(salary * PagIbigContributionCalculator.EMPLOYER_RATE, 100);
+            }
+            long total = employee + employer;
+            if (total > piCap) {
+                employee = Money.roundedDivide(piCap * employee, total);
+                employer = piCap - employee;
+                total = piCap;
+            }
+            pagIbigEmployeeContributions[i] = employee;
+            pagIbigEmployerContributions[i] = employer;
+            pagIbigTotalContributions[i] = total;
+
+            // Withholding tax
+            int bracket = 0;
+            while (salary > WithholdingTaxCalculator.UPPER_BOUNDS[bracket]) {
+                bracket++;
+            }
+            withholdingTaxes[i] = WithholdingTaxCalculator.BASE_TAX[bracket] + Money.roundedDivide(
+                    (salary - WithholdingTaxCalculator.EXCESS_OVER[bracket]) * WithholdingTaxCalculator.RATE_PERCENT[bracket], 100);
+        }
+    }
+
+    /**
+     * Returns the number of employees in the batch.
+     *
+     * @return The batch size.
+     */
+    public int size() {
+        return salaries.length;
+    }
+
+    /**
+     * Returns the SSS contributions of every employee in centavos. The array belongs to the batch and must not
+     * be modified.
+     *
+     * @return The SSS contributions, indexed like the salaries.
+     */
+    public long[] getSSSContributionsInCentavos() {
+        return sssContributions;
+    }
+
+    /**
+     * Returns the PhilHealth employee shares of every employee in centavos. The array belongs to the batch and must not
+     * be modified.
+     *
+     * @return The PhilHealth employee shares, indexed like the salaries.
+     */
+    public long[] getPhilHealthEmployeeSharesInCentavos() {
+        return philHealthEmployeeShares;
+    }
+
+    /**
+     * Returns the Pag-IBIG employee contributions of every employee in centavos. The array belongs to the batch and must not
+     * be modified.
+     *
+     * @return The Pag-IBIG employee contributions, indexed like the salaries.
+     */
+    public long[] getPagIbigEmployeeContributionsInCentavos() {
+        return pagIbigEmployeeContributions;
+    }
+
+    /**
+     * Returns the Pag-IBIG employer contributions of every employee in centavos. The array belongs to the batch and must not
+     * be modified.
+     *
+     * @return The Pag-IBIG employer contributions, indexed like the salaries.
+     */
+    public long[] getPagIbigEmployerContributionsInCentavos() {
+        return pagIbigEmployerContributions;
+    }
+
+    /**
+     * Returns the total Pag-IBIG contributions of every employee in centavos. The array belongs to the batch and must not
+     * be modified.
+     *
+     * @return The total Pag-IBIG contributions, indexed like the salaries.
+     */
+    public long[] getPagIbigTotalContributionsInCentavos() {
+        return pagIbigTotalContributions;
+    }
+
+    /**
+     * Returns the withholding taxes of every employee in centavos. The array belongs to the batch and must not
+     * be modified.
+     *
+     * @return The withholding taxes, indexed like the salaries.
+     */
+    public long[] getWithholdingTaxesInCentavos() {
+        return withholdingTaxes;
+    }
+
+    /**
+     * Returns the SSS contribution of one employee.
+     *
+     * @param index The employee's position in the salary array.
+     * @return The SSS contribution.
+     */
+    public Money getSSSContribution(int index) {
+        return Money.ofCentavos(sssContributions[index]);
+    }
+
+    /**
+     * Returns the PhilHealth employee share of one employee.
+     *
+     * @param index The employee's position in the salary array.
+     * @return The PhilHealth employee share.
+     */
+    public Money getPhilHealthEmployeeShare(int index) {
+        return Money.ofCentavos(philHealthEmployeeShares[index]);
+    }
+
+    /**
+     * Returns the Pag-IBIG contribution of one employee, in the layout of
+     * {@link PagIbigContributionCalculator#calculatePagIbigContribution(Money)}.
+     *
+     * @param index The employee's position in the salary array.
+     * @return The employee, employer and total contributions.
+     */
+    public Money[] getPagIbigContribution(int index) {
+        return new Money[]{
+                Money.ofCentavos(pagIbigEmployeeContributions[index]),
+                Money.ofCentavos(pagIbigEmployerContributions[index]),
+                Money.ofCentavos(pagIbigTotalContributions[index])
+        };
+    }
+
+    /**
+     * Returns the withholding tax of one employee.
+     *
+     * @param index The employee's position in the salary array.
+     * @return The withholding tax.
+     */
+    public Money getWithholdingTax(int index) {
+        return Money.ofCentavos(withholdingTaxes[index]);
+    }
+}
@@ -0,0 +1,150 @@
+package services;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import utils.Money;
+
+/**
+ * The DeductionCache class memoizes deductions for one payroll run. Deductions depend only on the
+ * monthly salary and the SSS schedule, and most employees share a few salary grades, so each
+ * distinct pair is computed once and reused. Schedules are immutable, so a schedule object
+ * identifies its version.
+ *
+ * The cache is safe to use from several threads. It holds at most {@code maxEntries} results;
+ * once full, further salaries are computed on every request instead of being kept.
+ */
+public final class DeductionCache {
+
+    // Logger instance using java.util.logging
+    private static final Logger logger = Logger.getLogger(DeductionCache.class.getName());
+
+    /** The default bound, far above the number of salary grades in use. */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final Map<Key, Deductions> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a cache with the default bound.
+     */
+    public DeductionCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a cache that keeps at most {@code maxEntries} results.
+     *
+     * @param maxEntries The maximum number of cached results.
+     * @throws IllegalArgumentException If {@code maxEntries} is negative.
+     */
+    public DeductionCache(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative.");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Computes the deductions of every salary not yet cached in a single batch, so later lookups
+     * hit. Repeated salaries are computed once.
+     *
+     * @param monthlySalaries The monthly salaries in centavos.
+     * @param sssSchedule     The SSS schedule.
+     * @throws IllegalArgumentException If a salary is negative.
+     */
+    public void preload(long[] monthlySalaries, SSSContributionSchedule sssSchedule) {
+        long[] pending = new long[monthlySalaries.length];
+        int count = 0;
+        Set<Long> seen = new HashSet<>();
+        for (long salary : monthlySalaries) {
+            if (!entries.containsKey(new Key(salary, sssSchedule)) && seen.add(salary)) {
+                pending[count++] = salary;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+
+        DeductionBatch batch = DeductionBatch.calculate(Arrays.copyOf(pending, count), sssSchedule);
+        for (int i = 0; i < count && entries.size() < maxEntries; i++) {
+            entries.putIfAbsent(new Key(pending[i], sssSchedule), new Deductions(batch, i));
+        }
+    }
+
+    /**
+     * Returns the deductions for a monthly salary, computing them on first use.
+     *
+     * @param monthlySalary The monthly salary; must not be negative.
+     * @param sssSchedule   The SSS schedule.
+     * @return The deductions.
+     * @throws IllegalArgumentException If the salary is negative.
+     */
+    public Deductions get(Money monthlySalary, SSSContributionSchedule sssSchedule) {
+        Key key = new Key(monthlySalary.getCentavos(), sssSchedule);
+        Deductions cached = entries.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        Deductions computed = compute(key);
+        if (entries.size() < maxEntries) {
+            Deductions raced = entries.putIfAbsent(key, computed);
+            if (raced != null) {
+                return raced;
+            }
+        }
+        return computed;
+    }
+
+    private static Deductions compute(Key key) {
+        return new Deductions(DeductionBatch.calculate(new long[]{key.salary()}, key.schedule()), 0);
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to compute their deductions.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return The cache size.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Logs the hit and miss counts.
+     */
+    public void logStatistics() {
+        logger.log(Level.INFO, "Deduction cache: {0} hits, {1} misses, {2} entries",
+                new Object[]{getHitCount(), getMissCount(), size()});
+    }
+
+    private record Key(long salary, SSSContributionSchedule schedule) {
+    }
+}
@@ -0,0 +1,65 @@
+package services;
+
+import utils.Money;
+
+/**
+ * The Deductions class holds the statutory deductions computed for one monthly salary under one
+ * SSS schedule. Instances are immutable and may be shared between employees and threads.
+ */
+public final class Deductions {
+
+    private final Money sssContribution;
+    private final Money philHealthEmployeeShare;
+    private final Money[] pagIbigContribution;
+    private final Money withholdingTax;
+
+    /**
+     * Copies the deductions at one position of a computed batch.
+     *
+     * @param batch The batch.
+     * @param index The salary's position in the batch.
+     */
+    Deductions(DeductionBatch batch, int index) {
+        this.sssContribution = batch.getSSSContribution(index);
+        this.philHealthEmployeeShare = batch.getPhilHealthEmployeeShare(index);
+        this.pagIbigContribution = batch.getPagIbigContribution(index);
+        this.withholdingTax = batch.getWithholdingTax(index);
+    }
+
+    /**
+     * Returns the SSS contribution.
+     *
+     * @return The SSS contribution.
+     */
+    public Money getSSSContribution() {
+        return sssContribution;
+    }
+
+    /**
+     * Returns the PhilHealth employee share.
+     *
+     * @return The PhilHealth employee share.
+     */
+    public Money getPhilHealthEmployeeShare() {
+        return philHealthEmployeeShare;
+    }
+
+    /**
+     * Returns the Pag-IBIG contribution, in the layout of
+     * {@link PagIbigContributionCalculator#calculatePagIbigContribution(Money)}.
+     *
+     * @return The employee, employer and total contributions.
+     */
+    public Money[] getPagIbigContribution() {
+        return pagIbigContribution.clone();
+    }
+
+    /**
+     * Returns the withholding tax.
+     *
+     * @return The withholding tax.
+     */
+    public Money getWithholdingTax() {
+        return withholdingTax;
+    }
+}
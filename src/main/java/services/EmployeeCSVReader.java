@@ -1,29 +1,24 @@
 package services;
 
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvValidationException;
 import models.Employee;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.text.NumberFormat;
-import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * The EmployeeCSVReader class is responsible for reading employee data from a CSV file
- * and creating Employee objects from that data.
+ * and creating Employee objects from that data. Parsed employees are cached in the shared
+ * {@link EmployeeRepository} for the file.
  */
 public class EmployeeCSVReader {
     private String filePath;
-    private NumberFormat numberFormat;
+    private EmployeeRepository repository;
 
     // Logger instance using java.util.logging
     private static final Logger logger = Logger.getLogger(EmployeeCSVReader.class.getName());
@@ -35,40 +30,24 @@ public class EmployeeCSVReader {
      */
     public EmployeeCSVReader(String filePath) {
         this.filePath = filePath;
-        this.numberFormat = NumberFormat.getInstance(Locale.US);
+        this.repository = EmployeeRepository.forFile(filePath);
     }
 
     /**
-     * Reads the employee data from the CSV file and returns a list of Employee objects.
+     * Returns the employees from the CSV file as a list of Employee objects. The data is held by the
+     * shared {@link EmployeeRepository}, so the file is only parsed again after it changes.
      *
      * @return A list of Employee objects created from the CSV data.
      * @throws IOException If there is an error reading the file.
      * @throws CsvValidationException If there is an error validating the CSV format.
      */
     public List<Employee> readEmployees() throws IOException, CsvValidationException {
-        List<Employee> employees = new ArrayList<>();
-
         // Log the start of the CSV reading process
         logger.log(Level.INFO, "Reading employee data from CSV file: {0}", filePath);
 
-        try (CSVReader reader = new CSVReaderBuilder(new FileReader(filePath))
-                .withSkipLines(1) // Skip header row
-                .build()) {
-
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                try {
-                    // Parse the CSV data and create an Employee object
-                    Employee employee = createEmployeeFromCSV(line);
-                    employees.add(employee);
-                    logger.log(Level.FINE, "Successfully parsed employee: {0}", employee.getFullname());
-                } catch (ParseException e) {
-                    // Log the error with details
-                    logger.log(Level.SEVERE, "Error parsing data for row: {0}", String.join(", ", line));
-                    logger.log(Level.SEVERE, "Error message: {0}", e.getMessage());
-                    // You can choose to continue or throw the exception here
-                }
-            }
+        List<Employee> employees;
+        try {
+            employees = repository.getEmployeeList();
         } catch (IOException e) {
             // Log the error with details
             logger.log(Level.SEVERE, "Error reading CSV file: {0}", e.getMessage());
@@ -80,66 +59,6 @@ public class EmployeeCSVReader {
         return employees;
     }
 
-    /**
-     * Creates an Employee object from a CSV line.
-     *
-     * @param data The array of strings representing a line from the CSV file.
-     * @return An Employee object populated with data from the CSV line.
-     * @throws ParseException If there is an error parsing numeric values.
-     */
-    private Employee createEmployeeFromCSV(String[] data) throws ParseException {
-        // Assuming the CSV columns are in the same order as the Employee constructor parameters
-        // Adjust the indices based on your actual CSV structure
-        String employeeNumber = data[0];
-        String lastName = data[1];
-        String firstName = data[2];
-        String birthday = data[3];
-        String address = data[4];
-        String phoneNumber = data[5];
-        String sssNumber = data[6];
-        String philhealthNumber = data[7];
-        String tinNumber = data[8];
-        String pagibigNumber = data[9];
-        String status = data[10];
-        String position = data[11];
-        String immediateSupervisor = data[12];
-
-        // Parse numeric values using NumberFormat to handle commas
-        double basicSalary = parseDoubleWithCommas(data[13]);
-        double riceSubsidy = parseDoubleWithCommas(data[14]);
-        double phoneAllowance = parseDoubleWithCommas(data[15]);
-        double clothingAllowance = parseDoubleWithCommas(data[16]);
-        double grossSemiMonthlyRate = parseDoubleWithCommas(data[17]);
-        double hourlyRate = parseDoubleWithCommas(data[18]);
-
-        return new Employee(
-                employeeNumber, lastName, firstName, birthday, address,
-                phoneNumber, sssNumber, philhealthNumber, tinNumber,
-                pagibigNumber, status, position, immediateSupervisor,
-                basicSalary, riceSubsidy, phoneAllowance, clothingAllowance,
-                grossSemiMonthlyRate, hourlyRate
-        );
-    }
-
-    /**
-     * Parses a string that may contain commas as a double.
-     *
-     * @param value The string value to parse.
-     * @return The parsed double value.
-     * @throws ParseException If the string cannot be parsed as a number.
-     */
-    private double parseDoubleWithCommas(String value) throws ParseException {
-        if (value == null || value.trim().isEmpty()) {
-            return 0.0;
-        }
-
-        // Remove any non-numeric characters except for decimal points and commas
-        String cleanedValue = value.trim().replaceAll("[^0-9.,]", "");
-
-        // Parse the value with NumberFormat which handles commas
-        return numberFormat.parse(cleanedValue).doubleValue();
-    }
-
     /**
      * Displays the employee data in a formatted table.
      *
@@ -166,21 +85,59 @@ public class EmployeeCSVReader {
     }
 
     /**
-     * Finds an employee by their employee number.
+     * Returns the lookup index over the employees, built once when the file is loaded.
+     *
+     * @return The employee index.
+     * @throws IOException If there is an error reading the file.
+     * @throws CsvValidationException If there is an error validating the CSV format.
+     */
+    public EmployeeIndex getIndex() throws IOException, CsvValidationException {
+        return repository.getIndex();
+    }
+
+    /**
+     * Finds an employee by their employee number using the index.
+     *
+     * @param employeeNumber The employee number to search for.
+     * @return Optional containing the employee if found, empty otherwise.
+     * @throws IOException If there is an error reading the file.
+     * @throws CsvValidationException If there is an error validating the CSV format.
+     */
+    public Optional<Employee> findEmployeeById(String employeeNumber) throws IOException, CsvValidationException {
+        return findEmployeeById(repository.getIndex(), employeeNumber);
+    }
+
+    /**
+     * Finds an employee by their employee number. Lists obtained from {@link #readEmployees()} are
+     * looked up in the index; any other list is searched.
      *
      * @param employees The list of employees to search.
      * @param employeeNumber The employee number to search for.
      * @return Optional containing the employee if found, empty otherwise.
      */
     public Optional<Employee> findEmployeeById(List<Employee> employees, String employeeNumber) {
+        try {
+            EmployeeIndex index = repository.getIndex();
+            if (index.getEmployees() == employees) {
+                return findEmployeeById(index, employeeNumber);
+            }
+        } catch (IOException | CsvValidationException e) {
+            logger.log(Level.FINE, "Employee index unavailable, searching the list: {0}", e.getMessage());
+        }
+
         // Log the search operation
         logger.log(Level.INFO, "Searching for employee with ID: {0}", employeeNumber);
-
         return employees.stream()
                 .filter(employee -> employee.getEmployeeNumber().equals(employeeNumber))
                 .findFirst();
     }
 
+    private Optional<Employee> findEmployeeById(EmployeeIndex index, String employeeNumber) {
+        // Log the search operation
+        logger.log(Level.INFO, "Searching for employee with ID: {0}", employeeNumber);
+        return Optional.ofNullable(index.findByEmployeeNumber(employeeNumber));
+    }
+
     /**
      * Displays detailed information for a specific employee.
      *
@@ -205,15 +162,7 @@ public class EmployeeCSVReader {
         System.out.println("SSS Number: " + employee.getSssNumber());
         System.out.println("PhilHealth Number: " + employee.getPhilhealthNumber());
         System.out.println("TIN Number: " + employee.getTinNumber());
-
-        // Add additional information if available
-        try {
-            String position = (String) employee.getClass().getMethod("getPosition").invoke(employee);
-            System.out.println("Position: " + position);
-        } catch (Exception e) {
-            // Position getter not available
-            logger.log(Level.FINE, "Position getter not available for employee: {0}", employee.getFullname());
-        }
+        System.out.println("Position: " + employee.getPosition());
 
         System.out.println("\nSalary Information:");
         System.out.printf("Basic Salary: ₱%.2f\n", employee.getBasicSalary());
@@ -221,12 +170,28 @@ public class EmployeeCSVReader {
         System.out.println("===========================================================");
     }
 
+    /**
+     * Interactive method that allows users to search for employees by ID. Lookups use the employee
+     * index, so the file is not read again for each search.
+     *
+     * @throws IOException If there is an error reading the file.
+     * @throws CsvValidationException If there is an error validating the CSV format.
+     */
+    public void searchEmployeeById() throws IOException, CsvValidationException {
+        EmployeeIndex index = repository.getIndex();
+        searchEmployees(employeeNumber -> findEmployeeById(index, employeeNumber));
+    }
+
     /**
      * Interactive method that allows users to search for employees by ID.
      *
      * @param employees The list of employees to search through.
      */
     public void searchEmployeeById(List<Employee> employees) {
+        searchEmployees(employeeNumber -> findEmployeeById(employees, employeeNumber));
+    }
+
+    private void searchEmployees(Function<String, Optional<Employee>> finder) {
         Scanner scanner = new Scanner(System.in);
         boolean continueSearch = true;
 
@@ -243,7 +208,7 @@ public class EmployeeCSVReader {
                 continue;
             }
 
-            Optional<Employee> foundEmployee = findEmployeeById(employees, input);
+            Optional<Employee> foundEmployee = finder.apply(input);
 
             if (foundEmployee.isPresent()) {
                 displayEmployeeDetails(foundEmployee.get());
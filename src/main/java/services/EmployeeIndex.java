@@ -0,0 +1,128 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import models.Employee;
+import utils.IntKeyMap;
+
+/**
+ * The EmployeeIndex class answers employee lookups without scanning. It is built once when the
+ * employees are loaded: a primary index on employee number and secondary indexes on position,
+ * status and immediate supervisor.
+ *
+ * Every lookup is a hash lookup. Results are unmodifiable views of lists held by the index, so
+ * nothing is copied per lookup. An index is never changed after it is built; the repository
+ * builds a new one when the employee file is reloaded.
+ */
+public final class EmployeeIndex {
+
+    private final Map<String, Employee> byEmployeeNumber;
+    private final IntKeyMap<Employee> byNumericEmployeeNumber;
+    private final List<Employee> employees;
+    private final Map<String, List<Employee>> byPosition;
+    private final Map<String, List<Employee>> byStatus;
+    private final Map<String, List<Employee>> bySupervisor;
+
+    /**
+     * Builds the index over employees keyed by employee number.
+     *
+     * @param employees The employees, keyed by employee number, in file order.
+     */
+    public EmployeeIndex(Map<String, Employee> employees) {
+        this.byEmployeeNumber = Collections.unmodifiableMap(employees);
+        this.byNumericEmployeeNumber = IntKeyMap.ofDecimalKeys(employees);
+        this.employees = Collections.unmodifiableList(new ArrayList<>(employees.values()));
+        this.byPosition = group(employees.values(), Employee::getPosition);
+        this.byStatus = group(employees.values(), Employee::getStatus);
+        this.bySupervisor = group(employees.values(), Employee::getImmediateSupervisor);
+    }
+
+    private static Map<String, List<Employee>> group(Collection<Employee> employees, Function<Employee, String> key) {
+        Map<String, List<Employee>> groups = new HashMap<>();
+        for (Employee employee : employees) {
+            groups.computeIfAbsent(normalize(key.apply(employee)), k -> new ArrayList<>()).add(employee);
+        }
+        for (Map.Entry<String, List<Employee>> entry : groups.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return groups;
+    }
+
+    // Keys are compared trimmed and without regard to case; missing values group under ""
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    /**
+     * Returns the employee with the given employee number.
+     *
+     * @param employeeNumber The employee number; surrounding whitespace is ignored.
+     * @return The employee, or {@code null} if there is none.
+     */
+    public Employee findByEmployeeNumber(String employeeNumber) {
+        return employeeNumber == null ? null : byEmployeeNumber.get(employeeNumber.trim());
+    }
+
+    /**
+     * Returns the employee with the given numeric employee number, without building a key string.
+     *
+     * @param employeeNumber The employee number.
+     * @return The employee, or {@code null} if there is none.
+     */
+    public Employee findByEmployeeNumber(int employeeNumber) {
+        return byNumericEmployeeNumber.get(employeeNumber);
+    }
+
+    /**
+     * Returns the employees holding a position.
+     *
+     * @param position The position, compared without regard to case.
+     * @return An unmodifiable view of the matching employees, in file order.
+     */
+    public List<Employee> findByPosition(String position) {
+        return byPosition.getOrDefault(normalize(position), List.of());
+    }
+
+    /**
+     * Returns the employees with an employment status, such as "Regular" or "Probationary".
+     *
+     * @param status The status, compared without regard to case.
+     * @return An unmodifiable view of the matching employees, in file order.
+     */
+    public List<Employee> findByStatus(String status) {
+        return byStatus.getOrDefault(normalize(status), List.of());
+    }
+
+    /**
+     * Returns the employees reporting to a supervisor.
+     *
+     * @param immediateSupervisor The supervisor as written in the employee file, compared without regard to case.
+     * @return An unmodifiable view of the matching employees, in file order.
+     */
+    public List<Employee> findBySupervisor(String immediateSupervisor) {
+        return bySupervisor.getOrDefault(normalize(immediateSupervisor), List.of());
+    }
+
+    /**
+     * Returns every employee.
+     *
+     * @return An unmodifiable view of the employees, in file order.
+     */
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    /**
+     * Returns the number of employees.
+     *
+     * @return The employee count.
+     */
+    public int size() {
+        return employees.size();
+    }
+}
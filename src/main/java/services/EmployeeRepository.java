@@ -0,0 +1,222 @@
+package services;
+
+import com.opencsv.exceptions.CsvValidationException;
+import controllers.AttendanceDataReader;
+import controllers.EmployeeDataReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import models.DateRange;
+import models.Employee;
+import models.EmployeeTable;
+
+/**
+ * The EmployeeRepository class keeps the employees of one data file resident in memory so that
+ * menu actions and payroll runs do not re-parse the file every time. One repository is shared
+ * per file through {@link #forFile(String)}.
+ *
+ * The cached data is dropped and reloaded whenever the file's modification time or size changes.
+ * Attendance attached to the employees is tracked the same way against the attendance file, except
+ * that rows appended to a CSV attendance file are read on their own and added to what is loaded.
+ */
+public class EmployeeRepository {
+
+    // Logger instance using java.util.logging
+    private static final Logger logger = Logger.getLogger(EmployeeRepository.class.getName());
+
+    // One repository per employee file, shared by every reader in the application
+    private static final Map<Path, EmployeeRepository> repositories = new ConcurrentHashMap<>();
+
+    private final String filePath;
+    private FileStamp employeesStamp;
+    private Map<String, Employee> employees;
+    private EmployeeIndex index;
+    private EmployeeTable table;
+
+    private String attendanceFile;
+    private FileStamp attendanceStamp;
+    private DateRange attendancePeriod;
+    private final AttendanceDataReader attendanceReader = new AttendanceDataReader();
+
+    private EmployeeRepository(String filePath) {
+        this.filePath = filePath;
+        attendanceReader.setParallelIngestion(true);
+    }
+
+    /**
+     * Returns the shared repository for an employee data file.
+     *
+     * @param filePath The path to the employee data file (CSV or Excel).
+     * @return The repository for that file.
+     */
+    public static EmployeeRepository forFile(String filePath) {
+        Path key = Path.of(filePath).toAbsolutePath().normalize();
+        return repositories.computeIfAbsent(key, path -> new EmployeeRepository(filePath));
+    }
+
+    /**
+     * Returns the employees keyed by employee number, in file order. The file is only parsed on the
+     * first call and after it has changed on disk.
+     *
+     * @return An unmodifiable map of employees.
+     * @throws IOException            If an I/O error occurs while reading the file.
+     * @throws CsvValidationException If the CSV file is invalid.
+     */
+    public synchronized Map<String, Employee> getEmployees() throws IOException, CsvValidationException {
+        FileStamp current = FileStamp.of(filePath);
+        if (employees == null || !current.equals(employeesStamp)) {
+            logger.log(Level.INFO, "Loading employee data from: {0}", filePath);
+            employees = Collections.unmodifiableMap(new EmployeeDataReader().readEmployeeData(filePath));
+            index = new EmployeeIndex(employees);
+            table = new EmployeeTable(employees.values());
+            employeesStamp = current;
+            attendanceStamp = null; // Fresh employees carry no attendance yet
+        }
+        return employees;
+    }
+
+    /**
+     * Returns the employees as a list, in file order.
+     *
+     * @return An unmodifiable list of employees.
+     * @throws IOException            If an I/O error occurs while reading the file.
+     * @throws CsvValidationException If the CSV file is invalid.
+     */
+    public synchronized List<Employee> getEmployeeList() throws IOException, CsvValidationException {
+        getEmployees();
+        return index.getEmployees();
+    }
+
+    /**
+     * Returns the lookup index over the employees. The index is built when the file is loaded and
+     * replaced when it is reloaded.
+     *
+     * @return The employee index.
+     * @throws IOException            If an I/O error occurs while reading the file.
+     * @throws CsvValidationException If the CSV file is invalid.
+     */
+    public synchronized EmployeeIndex getIndex() throws IOException, CsvValidationException {
+        getEmployees();
+        return index;
+    }
+
+    /**
+     * Returns the employees' compensation as primitive columns, in file order. The table is built
+     * when the file is loaded and replaced when it is reloaded.
+     *
+     * @return The employee table.
+     * @throws IOException            If an I/O error occurs while reading the file.
+     * @throws CsvValidationException If the CSV file is invalid.
+     */
+    public synchronized EmployeeTable getEmployeeTable() throws IOException, CsvValidationException {
+        getEmployees();
+        return table;
+    }
+
+    /**
+     * Returns the employee table with attendance from the given file attached to its employees,
+     * as {@link #getEmployeesWithAttendance(String)} does for the map.
+     *
+     * @param attendanceFile The path to the attendance data file (CSV or Excel).
+     * @return The employee table.
+     * @throws IOException            If an I/O error occurs while reading either file.
+     * @throws CsvValidationException If a CSV file is invalid.
+     */
+    public synchronized EmployeeTable getEmployeeTableWithAttendance(String attendanceFile)
+            throws IOException, CsvValidationException {
+        return getEmployeeTableWithAttendance(attendanceFile, DateRange.ALL);
+    }
+
+    /**
+     * Returns the employee table with the attendance from the given file that falls in a date
+     * range attached to its employees, as {@link #getEmployeesWithAttendance(String, DateRange)}
+     * does for the map.
+     *
+     * @param attendanceFile The path to the attendance data file (CSV or Excel).
+     * @param period         The dates of attendance to attach.
+     * @return The employee table.
+     * @throws IOException            If an I/O error occurs while reading either file.
+     * @throws CsvValidationException If a CSV file is invalid.
+     */
+    public synchronized EmployeeTable getEmployeeTableWithAttendance(String attendanceFile, DateRange period)
+            throws IOException, CsvValidationException {
+        getEmployeesWithAttendance(attendanceFile, period);
+        return table;
+    }
+
+    /**
+     * Returns the employees with attendance from the given file attached. Attendance is only read
+     * again when the attendance file, or the employee file, has changed since the last call. If the
+     * attendance file has only been appended to, just the new rows are read.
+     *
+     * @param attendanceFile The path to the attendance data file (CSV or Excel).
+     * @return An unmodifiable map of employees with their attendance.
+     * @throws IOException            If an I/O error occurs while reading either file.
+     * @throws CsvValidationException If a CSV file is invalid.
+     */
+    public synchronized Map<String, Employee> getEmployeesWithAttendance(String attendanceFile)
+            throws IOException, CsvValidationException {
+        return getEmployeesWithAttendance(attendanceFile, DateRange.ALL);
+    }
+
+    /**
+     * Returns the employees with the attendance from the given file that falls in a date range
+     * attached. Rows outside the range are rejected while the file is read, so loading one pay
+     * period of a long history attaches only that period. Asking for a different range than the
+     * loaded one reads the attendance again.
+     *
+     * @param attendanceFile The path to the attendance data file (CSV or Excel).
+     * @param period         The dates of attendance to attach.
+     * @return An unmodifiable map of employees with their attendance.
+     * @throws IOException            If an I/O error occurs while reading either file.
+     * @throws CsvValidationException If a CSV file is invalid.
+     */
+    public synchronized Map<String, Employee> getEmployeesWithAttendance(String attendanceFile, DateRange period)
+            throws IOException, CsvValidationException {
+        Map<String, Employee> current = getEmployees();
+        FileStamp stamp = FileStamp.of(attendanceFile);
+        boolean samePeriod = period.equals(attendancePeriod);
+        if (stamp.equals(attendanceStamp) && attendanceFile.equals(this.attendanceFile) && samePeriod) {
+            return current;
+        }
+
+        attendanceReader.setPeriod(period);
+        if (attendanceStamp != null && attendanceFile.equals(this.attendanceFile) && samePeriod) {
+            // Attendance files normally only grow; the reader falls back to a full read otherwise
+            logger.log(Level.INFO, "Reading attendance appended to: {0}", attendanceFile);
+            attendanceReader.readAppendedAttendanceData(attendanceFile, current);
+        } else {
+            logger.log(Level.INFO, "Loading attendance data from: {0}", attendanceFile);
+            for (Employee employee : current.values()) {
+                employee.clearAttendance();
+            }
+            attendanceReader.readAttendanceData(attendanceFile, current);
+        }
+
+        // Index every employee's attendance by date while loading, so period queries only search it
+        current.values().parallelStream().forEach(Employee::getAttendanceIndex);
+
+        this.attendanceFile = attendanceFile;
+        this.attendanceStamp = stamp;
+        this.attendancePeriod = period;
+        return current;
+    }
+
+    /**
+     * Modification time and size of a file, used to detect changes on disk.
+     */
+    private record FileStamp(long lastModified, long size) {
+
+        static FileStamp of(String filePath) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(Path.of(filePath), BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package services;
 
+import utils.Money;
+
 public class PagIbigContributionCalculator {
 
-    // Constants for Pag-IBIG contribution rates
-    private static final double RATE_1 = 0.01; // 1% for employees earning at least 1,000 to 1,500
-    private static final double RATE_2 = 0.02; // 2% for employees earning over 1,500
-    private static final double EMPLOYER_RATE = 0.02; // 2% for employers
-    private static final double MAX_CONTRIBUTION = 100.0; // Maximum contribution amount
+    // Constants for Pag-IBIG contribution rates, in percent
+    static final long RATE_1 = 1; // 1% for employees earning at least 1,000 to 1,500
+    static final long RATE_2 = 2; // 2% for employees earning over 1,500
+    static final long EMPLOYER_RATE = 2; // 2% for employers
+    static final Money MAX_CONTRIBUTION = Money.ofPesos(100); // Maximum contribution amount
+    static final Money LOWER_BRACKET_MIN = Money.ofPesos(1000);
+    static final Money LOWER_BRACKET_MAX = Money.ofPesos(1500);
 
     /**
      * Calculates the Pag-IBIG contribution for an employee.
@@ -17,33 +21,34 @@ public class PagIbigContributionCalculator {
      *         - Employer's contribution
      *         - Total contribution
      */
-    public static double[] calculatePagIbigContribution(double monthlyBasicSalary) {
-        double employeeContribution;
-        double employerContribution;
-        double totalContribution;
+    public static Money[] calculatePagIbigContribution(Money monthlyBasicSalary) {
+        Money employeeContribution;
+        Money employerContribution;
+        Money totalContribution;
 
-        if (monthlyBasicSalary >= 1000 && monthlyBasicSalary <= 1500) {
+        if (monthlyBasicSalary.compareTo(LOWER_BRACKET_MIN) >= 0 && monthlyBasicSalary.compareTo(LOWER_BRACKET_MAX) <= 0) {
             // Employee earns at least 1,000 to 1,500
-            employeeContribution = monthlyBasicSalary * RATE_1;
-            employerContribution = monthlyBasicSalary * EMPLOYER_RATE;
-        } else if (monthlyBasicSalary > 1500) {
+            employeeContribution = monthlyBasicSalary.times(RATE_1, 100);
+            employerContribution = monthlyBasicSalary.times(EMPLOYER_RATE, 100);
+        } else if (monthlyBasicSalary.compareTo(LOWER_BRACKET_MAX) > 0) {
             // Employee earns over 1,500
-            employeeContribution = monthlyBasicSalary * RATE_2;
-            employerContribution = monthlyBasicSalary * EMPLOYER_RATE;
+            employeeContribution = monthlyBasicSalary.times(RATE_2, 100);
+            employerContribution = monthlyBasicSalary.times(EMPLOYER_RATE, 100);
         } else {
             // Employee earns less than 1,000 (no contribution)
-            employeeContribution = 0;
-            employerContribution = 0;
+            employeeContribution = Money.ZERO;
+            employerContribution = Money.ZERO;
         }
 
         // Apply the maximum contribution limit
-        totalContribution = employeeContribution + employerContribution;
-        if (totalContribution > MAX_CONTRIBUTION) {
-            employeeContribution = MAX_CONTRIBUTION * (employeeContribution / totalContribution);
-            employerContribution = MAX_CONTRIBUTION * (employerContribution / totalContribution);
+        totalContribution = employeeContribution.plus(employerContribution);
+        if (totalContribution.compareTo(MAX_CONTRIBUTION) > 0) {
+            // Split the cap in proportion; the employer takes the remainder so the shares add up exactly
+            employeeContribution = MAX_CONTRIBUTION.times(employeeContribution.getCentavos(), totalContribution.getCentavos());
+            employerContribution = MAX_CONTRIBUTION.minus(employeeContribution);
             totalContribution = MAX_CONTRIBUTION;
         }
 
-        return new double[]{employeeContribution, employerContribution, totalContribution};
+        return new Money[]{employeeContribution, employerContribution, totalContribution};
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package services;
 
+import utils.Money;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,11 +14,11 @@ public class PhilHealthCalculator {
     private static final Logger logger = Logger.getLogger(PhilHealthCalculator.class.getName());
 
     // Constants for PhilHealth calculation
-    private static final double PREMIUM_RATE = 0.03; // 3%
-    private static final double MIN_MONTHLY_PREMIUM = 300.0; // ₱300
-    private static final double MAX_MONTHLY_PREMIUM = 1800.0; // ₱1,800
-    private static final double MIN_SALARY_FOR_MIN_PREMIUM = 10000.0; // ₱10,000
-    private static final double MAX_SALARY_FOR_MAX_PREMIUM = 60000.0; // ₱60,000
+    static final long PREMIUM_RATE_PERCENT = 3; // 3%
+    static final Money MIN_MONTHLY_PREMIUM = Money.ofPesos(300); // ₱300
+    static final Money MAX_MONTHLY_PREMIUM = Money.ofPesos(1800); // ₱1,800
+    static final Money MIN_SALARY_FOR_MIN_PREMIUM = Money.ofPesos(10000); // ₱10,000
+    static final Money MAX_SALARY_FOR_MAX_PREMIUM = Money.ofPesos(60000); // ₱60,000
 
     /**
      * Calculates the monthly PhilHealth premium based on the monthly basic salary.
@@ -26,26 +27,26 @@ public class PhilHealthCalculator {
      * @return The total monthly PhilHealth premium.
      * @throws IllegalArgumentException If the salary is invalid.
      */
-    public static double calculateMonthlyPremium(double monthlyBasicSalary) {
+    public static Money calculateMonthlyPremium(Money monthlyBasicSalary) {
         // Log the start of the calculation
         logger.log(Level.INFO, "Calculating monthly premium for salary: {0}", monthlyBasicSalary);
 
-        if (monthlyBasicSalary < 0) {
+        if (monthlyBasicSalary.isNegative()) {
             logger.log(Level.SEVERE, "Invalid salary: {0}. Salary cannot be negative.", monthlyBasicSalary);
             throw new IllegalArgumentException("Salary cannot be negative.");
         }
 
-        double premium;
-        if (monthlyBasicSalary <= MIN_SALARY_FOR_MIN_PREMIUM) {
+        Money premium;
+        if (monthlyBasicSalary.compareTo(MIN_SALARY_FOR_MIN_PREMIUM) <= 0) {
             premium = MIN_MONTHLY_PREMIUM;
             logger.log(Level.FINE, "Salary <= {0}. Using minimum premium: {1}", 
                 new Object[]{MIN_SALARY_FOR_MIN_PREMIUM, premium});
-        } else if (monthlyBasicSalary >= MAX_SALARY_FOR_MAX_PREMIUM) {
+        } else if (monthlyBasicSalary.compareTo(MAX_SALARY_FOR_MAX_PREMIUM) >= 0) {
             premium = MAX_MONTHLY_PREMIUM;
             logger.log(Level.FINE, "Salary >= {0}. Using maximum premium: {1}", 
                 new Object[]{MAX_SALARY_FOR_MAX_PREMIUM, premium});
         } else {
-            premium = monthlyBasicSalary * PREMIUM_RATE;
+            premium = monthlyBasicSalary.times(PREMIUM_RATE_PERCENT, 100);
             logger.log(Level.FINE, "Salary between {0} and {1}. Calculated premium: {2}", 
                 new Object[]{MIN_SALARY_FOR_MIN_PREMIUM, MAX_SALARY_FOR_MAX_PREMIUM, premium});
         }
@@ -62,12 +63,12 @@ public class PhilHealthCalculator {
      * @return The employee's share of the PhilHealth premium.
      * @throws IllegalArgumentException If the salary is invalid.
      */
-    public static double calculateEmployeeShare(double monthlyBasicSalary) {
+    public static Money calculateEmployeeShare(Money monthlyBasicSalary) {
         // Log the start of the calculation
         logger.log(Level.INFO, "Calculating employee share for salary: {0}", monthlyBasicSalary);
 
-        double totalPremium = calculateMonthlyPremium(monthlyBasicSalary);
-        double employeeShare = totalPremium / 2;
+        Money totalPremium = calculateMonthlyPremium(monthlyBasicSalary);
+        Money employeeShare = totalPremium.divide(2);
 
         // Log the calculated employee share
         logger.log(Level.INFO, "Calculated employee share: {0}", employeeShare);
@@ -81,12 +82,12 @@ public class PhilHealthCalculator {
      * @return The employer's share of the PhilHealth premium.
      * @throws IllegalArgumentException If the salary is invalid.
      */
-    public static double calculateEmployerShare(double monthlyBasicSalary) {
+    public static Money calculateEmployerShare(Money monthlyBasicSalary) {
         // Log the start of the calculation
         logger.log(Level.INFO, "Calculating employer share for salary: {0}", monthlyBasicSalary);
 
-        double totalPremium = calculateMonthlyPremium(monthlyBasicSalary);
-        double employerShare = totalPremium / 2;
+        Money totalPremium = calculateMonthlyPremium(monthlyBasicSalary);
+        Money employerShare = totalPremium.divide(2);
 
         // Log the calculated employer share
         logger.log(Level.INFO, "Calculated employer share: {0}", employerShare);
@@ -95,14 +96,14 @@ public class PhilHealthCalculator {
 
     // Example usage
     public static void main(String[] args) {
-        double monthlyBasicSalary = 25000.0; // Example monthly basic salary
+        Money monthlyBasicSalary = Money.ofPesos(25000); // Example monthly basic salary
 
         // Log the example usage
         logger.log(Level.INFO, "Example usage with salary: {0}", monthlyBasicSalary);
 
-        double totalPremium = calculateMonthlyPremium(monthlyBasicSalary);
-        double employeeShare = calculateEmployeeShare(monthlyBasicSalary);
-        double employerShare = calculateEmployerShare(monthlyBasicSalary);
+        Money totalPremium = calculateMonthlyPremium(monthlyBasicSalary);
+        Money employeeShare = calculateEmployeeShare(monthlyBasicSalary);
+        Money employerShare = calculateEmployerShare(monthlyBasicSalary);
 
         // Display results
         System.out.println("Monthly Basic Salary: " + monthlyBasicSalary);
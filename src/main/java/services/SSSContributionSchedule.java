@@ -0,0 +1,224 @@
+package services;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import utils.Money;
+
+/**
+ * The SSSContributionSchedule class holds one SSS contribution table and the date it takes effect.
+ * A table is a list of salary brackets, each given by the lowest monthly salary it covers and the
+ * employee contribution for that bracket; the last bracket covers every higher salary.
+ *
+ * SSS brackets are normally uniform steps (₱500 wide), so a bracket is found by computing its index
+ * from the salary. Tables with uneven brackets are still accepted and are searched instead.
+ */
+public final class SSSContributionSchedule {
+
+    private final LocalDate effectiveDate;
+    private final long[] lowerBounds; // Lowest salary of each bracket, in centavos
+    private final Money[] contributions;
+    private final long[] contributionCentavos;
+
+    // Uniform layout: brackets after the first start at firstBoundary and are step centavos wide
+    private final long firstBoundary;
+    private final long step;
+
+    /**
+     * Constructs a schedule from its brackets.
+     *
+     * @param effectiveDate The first date the schedule applies to.
+     * @param lowerBounds   The lowest monthly salary of each bracket, in ascending order.
+     * @param contributions The employee contribution of each bracket.
+     * @throws IllegalArgumentException If the brackets are empty, unsorted or of different lengths.
+     */
+    public SSSContributionSchedule(LocalDate effectiveDate, Money[] lowerBounds, Money[] contributions) {
+        if (lowerBounds.length == 0 || lowerBounds.length != contributions.length) {
+            throw new IllegalArgumentException("A schedule needs one contribution per bracket.");
+        }
+        this.effectiveDate = effectiveDate;
+        this.lowerBounds = new long[lowerBounds.length];
+        for (int i = 0; i < lowerBounds.length; i++) {
+            this.lowerBounds[i] = lowerBounds[i].getCentavos();
+            if (i > 0 && this.lowerBounds[i] <= this.lowerBounds[i - 1]) {
+                throw new IllegalArgumentException("Brackets of the " + effectiveDate + " schedule are not in ascending order.");
+            }
+        }
+        this.contributions = contributions.clone();
+        this.contributionCentavos = new long[contributions.length];
+        for (int i = 0; i < contributions.length; i++) {
+            this.contributionCentavos[i] = contributions[i].getCentavos();
+        }
+
+        long uniformStep = lowerBounds.length > 2 ? this.lowerBounds[2] - this.lowerBounds[1] : 0;
+        for (int i = 3; i < this.lowerBounds.length && uniformStep > 0; i++) {
+            if (this.lowerBounds[i] - this.lowerBounds[i - 1] != uniformStep) {
+                uniformStep = 0;
+            }
+        }
+        this.firstBoundary = lowerBounds.length > 1 ? this.lowerBounds[1] : Long.MAX_VALUE;
+        this.step = uniformStep;
+    }
+
+    /**
+     * Builds a schedule of uniform brackets: one bracket below {@code firstBoundary}, then brackets
+     * {@code step} wide whose contribution grows by {@code increment} each step.
+     *
+     * @param effectiveDate     The first date the schedule applies to.
+     * @param firstBoundary     The lowest salary of the second bracket.
+     * @param step              The width of every bracket after the first.
+     * @param firstContribution The contribution of the first bracket.
+     * @param increment         The increase in contribution from one bracket to the next.
+     * @param brackets          The number of brackets.
+     * @return The schedule.
+     */
+    public static SSSContributionSchedule uniform(LocalDate effectiveDate, Money firstBoundary, Money step,
+                                                  Money firstContribution, Money increment, int brackets) {
+        Money[] lowerBounds = new Money[brackets];
+        Money[] contributions = new Money[brackets];
+        lowerBounds[0] = Money.ZERO;
+        contributions[0] = firstContribution;
+        for (int i = 1; i < brackets; i++) {
+            lowerBounds[i] = i == 1 ? firstBoundary : lowerBounds[i - 1].plus(step);
+            contributions[i] = contributions[i - 1].plus(increment);
+        }
+        return new SSSContributionSchedule(effectiveDate, lowerBounds, contributions);
+    }
+
+    /**
+     * Reads schedules from a CSV file with the columns "Effective Date" (yyyy-MM-dd), "Salary From"
+     * and "Employee Contribution". A file may hold several schedules; rows with the same effective
+     * date form one schedule.
+     *
+     * @param filePath The path to the CSV file.
+     * @return The schedules in the order they first appear in the file.
+     * @throws IOException            If the file cannot be read or a row is invalid.
+     * @throws CsvValidationException If the CSV file is invalid.
+     */
+    public static List<SSSContributionSchedule> load(String filePath) throws IOException, CsvValidationException {
+        Map<LocalDate, List<Money[]>> rowsByDate = new LinkedHashMap<>();
+        try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
+            reader.readNext(); // Skip the header row
+            String[] nextLine;
+            while ((nextLine = reader.readNext()) != null) {
+                if (nextLine.length == 1 && nextLine[0].isBlank()) {
+                    continue; // Blank line
+                }
+                if (nextLine.length < 3) {
+                    throw new IOException("Missing fields in SSS schedule row " + reader.getLinesRead() + " of " + filePath);
+                }
+                try {
+                    LocalDate effectiveDate = LocalDate.parse(nextLine[0].trim());
+                    Money salaryFrom = Money.parse(nextLine[1]);
+                    Money contribution = Money.parse(nextLine[2]);
+                    rowsByDate.computeIfAbsent(effectiveDate, date -> new ArrayList<>())
+                            .add(new Money[]{salaryFrom, contribution});
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    throw new IOException("Invalid SSS schedule row " + reader.getLinesRead() + " of " + filePath
+                            + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        List<SSSContributionSchedule> schedules = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Money[]>> entry : rowsByDate.entrySet()) {
+            List<Money[]> rows = entry.getValue();
+            rows.sort((a, b) -> a[0].compareTo(b[0]));
+            Money[] lowerBounds = new Money[rows.size()];
+            Money[] contributions = new Money[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                lowerBounds[i] = rows.get(i)[0];
+                contributions[i] = rows.get(i)[1];
+            }
+            schedules.add(new SSSContributionSchedule(entry.getKey(), lowerBounds, contributions));
+        }
+        return schedules;
+    }
+
+    /**
+     * Returns the first date the schedule applies to.
+     *
+     * @return The effective date.
+     */
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    /**
+     * Returns the number of salary brackets.
+     *
+     * @return The bracket count.
+     */
+    public int getBracketCount() {
+        return contributions.length;
+    }
+
+    /**
+     * Returns a 64-bit fingerprint of the effective date and every bracket, so a schedule loaded in
+     * another run can be recognised as the same table.
+     *
+     * @return The fingerprint.
+     */
+    public long fingerprint() {
+        long hash = 0xcbf29ce484222325L ^ effectiveDate.toEpochDay();
+        for (int i = 0; i < lowerBounds.length; i++) {
+            hash = (hash ^ lowerBounds[i]) * 0x100000001b3L;
+            hash = (hash ^ contributionCentavos[i]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the employee contribution for a monthly salary.
+     *
+     * @param monthlySalary The monthly salary; must not be negative.
+     * @return The contribution of the bracket the salary falls in.
+     */
+    public Money contributionFor(Money monthlySalary) {
+        return contributions[bracketIndex(monthlySalary.getCentavos())];
+    }
+
+    /**
+     * Returns the lowest salary of the second bracket, in centavos, for the batch kernels.
+     */
+    long firstBoundary() {
+        return firstBoundary;
+    }
+
+    /**
+     * Returns the width of the uniform brackets in centavos, or 0 if the brackets are uneven.
+     */
+    long step() {
+        return step;
+    }
+
+    /**
+     * Returns the contribution of every bracket in centavos. The array must not be modified.
+     */
+    long[] contributionCentavos() {
+        return contributionCentavos;
+    }
+
+    /**
+     * Returns the bracket a salary in centavos falls in.
+     */
+    int bracketIndex(long salary) {
+        if (salary < firstBoundary) {
+            return 0;
+        }
+        if (step > 0) {
+            // Uniform brackets: the index follows directly from the salary
+            return (int) Math.min((salary - firstBoundary) / step + 1, contributions.length - 1);
+        }
+        int index = Arrays.binarySearch(lowerBounds, salary);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,28 @@
+package services;
+
+/**
+ * The StatutoryTables class identifies the statutory tables a payroll is calculated with, so
+ * stored payroll results can tell whether they are still valid. The SSS schedules can be loaded at
+ * run time and are fingerprinted by their brackets; the PhilHealth, Pag-IBIG and withholding tax
+ * rates are compiled in and covered by {@link #VERSION}.
+ */
+public final class StatutoryTables {
+
+    /**
+     * The version of the compiled-in rates. Bump it when any of them changes, or when the way a
+     * payroll is calculated or rendered changes, so stored results are not reused.
+     */
+    public static final int VERSION = 1;
+
+    private StatutoryTables() {
+    }
+
+    /**
+     * Returns a fingerprint of the tables in force: the resident SSS schedules and {@link #VERSION}.
+     *
+     * @return The fingerprint.
+     */
+    public static long fingerprint() {
+        return SSSContributionCalculator.getSchedulesFingerprint() * 31 + VERSION;
+    }
+}
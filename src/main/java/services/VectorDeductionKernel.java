@@ -0,0 +1,158 @@
+package services;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorDeductionKernel class fills a {@link DeductionBatch} with the Vector API. Every
+ * deduction is computed for a whole vector of salaries at a time; brackets are selected with lane
+ * masks and blends instead of branches. Rounding is half-up, as in {@link utils.Money}.
+ *
+ * CPUs have no SIMD instruction for 64-bit integer division, so quotients are taken in double
+ * lanes and truncated. That is exact while dividends stay below 2^53, which
+ * {@link #MAX_SALARY} guarantees; larger batches are left to the scalar loop.
+ *
+ * This class is only compiled by the {@code vector} Maven profile and only loaded, reflectively by
+ * {@link DeductionBatch}, when the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorDeductionKernel implements DeductionBatch.Kernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    // Largest salary in centavos for which every intermediate dividend stays below 2^53
+    static final long MAX_SALARY = 1L << 40;
+
+    VectorDeductionKernel() {
+    }
+
+    /**
+     * Computes as many leading entries as fill whole vectors.
+     *
+     * @return The number of entries computed; the rest is left to the scalar loop.
+     */
+    @Override
+    public int compute(DeductionBatch batch, SSSContributionSchedule sssSchedule) {
+        int upperBound = SPECIES.loopBound(batch.size());
+        for (long salary : batch.salaries) {
+            if (salary > MAX_SALARY) {
+                return 0;
+            }
+        }
+        if (upperBound == 0) {
+            return 0;
+        }
+
+        long[] sssTable = sssSchedule.contributionCentavos();
+        boolean uniformSss = sssSchedule.step() > 0;
+        long[] lanes = new long[SPECIES.length()];
+
+        for (int i = 0; i < upperBound; i += SPECIES.length()) {
+            LongVector salary = LongVector.fromArray(SPECIES, batch.salaries, i);
+
+            if (uniformSss) {
+                sss(salary, sssSchedule, lanes);
+                for (int lane = 0; lane < lanes.length; lane++) {
+                    batch.sssContributions[i + lane] = sssTable[(int) lanes[lane]];
+                }
+            } else {
+                for (int lane = 0; lane < lanes.length; lane++) {
+                    batch.sssContributions[i + lane] = sssTable[sssSchedule.bracketIndex(batch.salaries[i + lane])];
+                }
+            }
+            philHealth(salary).intoArray(batch.philHealthEmployeeShares, i);
+            pagIbig(salary, batch, i);
+            withholdingTax(salary).intoArray(batch.withholdingTaxes, i);
+        }
+        return upperBound;
+    }
+
+    /**
+     * Writes the SSS bracket index of each lane: 0 below the first boundary, then one bracket per
+     * step, clamped to the last bracket.
+     */
+    private static void sss(LongVector salary, SSSContributionSchedule schedule, long[] indexes) {
+        long first = schedule.firstBoundary();
+        VectorMask<Long> belowFirst = salary.compare(VectorOperators.LT, first);
+        divide(salary.sub(first).max(0), LongVector.broadcast(SPECIES, schedule.step()))
+                .add(1)
+                .min(schedule.getBracketCount() - 1)
+                .blend(0, belowFirst)
+                .intoArray(indexes, 0);
+    }
+
+    private static LongVector philHealth(LongVector salary) {
+        long minSalary = PhilHealthCalculator.MIN_SALARY_FOR_MIN_PREMIUM.getCentavos();
+        long maxSalary = PhilHealthCalculator.MAX_SALARY_FOR_MAX_PREMIUM.getCentavos();
+
+        LongVector premium = roundedDivide(salary.mul(PhilHealthCalculator.PREMIUM_RATE_PERCENT), 100)
+                .blend(PhilHealthCalculator.MIN_MONTHLY_PREMIUM.getCentavos(), salary.compare(VectorOperators.LE, minSalary))
+                .blend(PhilHealthCalculator.MAX_MONTHLY_PREMIUM.getCentavos(), salary.compare(VectorOperators.GE, maxSalary));
+        return roundedDivide(premium, 2);
+    }
+
+    private static void pagIbig(LongVector salary, DeductionBatch batch, int offset) {
+        long lowerMin = PagIbigContributionCalculator.LOWER_BRACKET_MIN.getCentavos();
+        long lowerMax = PagIbigContributionCalculator.LOWER_BRACKET_MAX.getCentavos();
+        long cap = PagIbigContributionCalculator.MAX_CONTRIBUTION.getCentavos();
+
+        VectorMask<Long> lower = salary.compare(VectorOperators.GE, lowerMin)
+                .and(salary.compare(VectorOperators.LE, lowerMax));
+        VectorMask<Long> upper = salary.compare(VectorOperators.GT, lowerMax);
+
+        LongVector zero = LongVector.zero(SPECIES);
+        LongVector employeeRate = zero.blend(PagIbigContributionCalculator.RATE_1, lower)
+                .blend(PagIbigContributionCalculator.RATE_2, upper);
+        LongVector employerRate = zero.blend(PagIbigContributionCalculator.EMPLOYER_RATE, lower.or(upper));
+
+        LongVector employee = roundedDivide(salary.mul(employeeRate), 100);
+        LongVector employer = roundedDivide(salary.mul(employerRate), 100);
+        LongVector total = employee.add(employer);
+
+        // Over the cap the cap is split in proportion; other lanes divide by 1 and are discarded
+        VectorMask<Long> capped = total.compare(VectorOperators.GT, cap);
+        LongVector divisor = total.blend(1, capped.not());
+        LongVector cappedEmployee = divide(employee.mul(cap).add(divide(divisor, LongVector.broadcast(SPECIES, 2))), divisor);
+
+        employee.blend(cappedEmployee, capped).intoArray(batch.pagIbigEmployeeContributions, offset);
+        employer.blend(cappedEmployee.neg().add(cap), capped).intoArray(batch.pagIbigEmployerContributions, offset);
+        total.blend(cap, capped).intoArray(batch.pagIbigTotalContributions, offset);
+    }
+
+    private static LongVector withholdingTax(LongVector salary) {
+        long[] upperBounds = WithholdingTaxCalculator.UPPER_BOUNDS;
+        LongVector baseTax = LongVector.zero(SPECIES);
+        LongVector excessOver = LongVector.zero(SPECIES);
+        LongVector rate = LongVector.zero(SPECIES);
+
+        // Each lane ends up with the parameters of the highest bracket its salary exceeds
+        for (int bracket = 1; bracket < upperBounds.length; bracket++) {
+            VectorMask<Long> above = salary.compare(VectorOperators.GT, upperBounds[bracket - 1]);
+            baseTax = baseTax.blend(WithholdingTaxCalculator.BASE_TAX[bracket], above);
+            excessOver = excessOver.blend(WithholdingTaxCalculator.EXCESS_OVER[bracket], above);
+            rate = rate.blend(WithholdingTaxCalculator.RATE_PERCENT[bracket], above);
+        }
+        return baseTax.add(roundedDivide(salary.sub(excessOver).mul(rate), 100));
+    }
+
+    /**
+     * Divides every lane and rounds half-up, away from zero, like {@link utils.Money#roundedDivide(long, long)}.
+     */
+    private static LongVector roundedDivide(LongVector dividend, long divisor) {
+        VectorMask<Long> negative = dividend.compare(VectorOperators.LT, 0);
+        LongVector quotient = divide(dividend.abs().add(divisor / 2), LongVector.broadcast(SPECIES, divisor));
+        return quotient.blend(quotient.neg(), negative);
+    }
+
+    /**
+     * Divides non-negative lanes, truncating. Exact for dividends below 2^53: a quotient that is
+     * not whole is at least 1/divisor away from the next integer, more than the rounding error.
+     */
+    private static LongVector divide(LongVector dividend, LongVector divisor) {
+        DoubleVector quotient = ((DoubleVector) dividend.convert(VectorOperators.L2D, 0))
+                .div((DoubleVector) divisor.convert(VectorOperators.L2D, 0));
+        return (LongVector) quotient.convert(VectorOperators.D2L, 0);
+    }
+}
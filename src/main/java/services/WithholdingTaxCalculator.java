@@ -4,28 +4,33 @@
  */
 package services;
 
+import utils.Money;
 
 public class WithholdingTaxCalculator {
 
-    public static double calculateWithholdingTax(double monthlySalary) {
-        if (monthlySalary <= 20_832) {
-            // No withholding tax
-            return 0;
-        } else if (monthlySalary <= 33_333) {
-            // 20% of the amount in excess of 20,833
-            return 0.20 * (monthlySalary - 20_833);
-        } else if (monthlySalary <= 66_667) {
-            // 2,500 + 25% of the amount in excess of 33,333
-            return 2_500 + 0.25 * (monthlySalary - 33_333);
-        } else if (monthlySalary <= 166_667) {
-            // 10,833 + 30% of the amount in excess of 66,667
-            return 10_833 + 0.30 * (monthlySalary - 66_667);
-        } else if (monthlySalary <= 666_667) {
-            // 40,833.33 + 32% of the amount in excess of 166,667
-            return 40_833.33 + 0.32 * (monthlySalary - 166_667);
-        } else {
-            // 200,833.33 + 35% of the amount in excess of 666,667
-            return 200_833.33 + 0.35 * (monthlySalary - 666_667);
+    // Tax brackets, in centavos: a salary up to UPPER_BOUNDS[k] pays BASE_TAX[k] plus RATE_PERCENT[k]
+    // of the amount in excess of EXCESS_OVER[k]. Shared with the batch deduction kernels.
+    static final long[] UPPER_BOUNDS = {20_832_00, 33_333_00, 66_667_00, 166_667_00, 666_667_00, Long.MAX_VALUE};
+    static final long[] BASE_TAX = {0, 0, 2_500_00, 10_833_00, 40_833_33, 200_833_33};
+    static final long[] EXCESS_OVER = {0, 20_833_00, 33_333_00, 66_667_00, 166_667_00, 666_667_00};
+    static final long[] RATE_PERCENT = {0, 20, 25, 30, 32, 35};
+
+    public static Money calculateWithholdingTax(Money monthlySalary) {
+        long salary = monthlySalary.getCentavos();
+        int bracket = 0;
+        while (salary > UPPER_BOUNDS[bracket]) {
+            bracket++;
+        }
+        // Up to 20,832: no withholding tax
+        // Up to 33,333: 20% of the amount in excess of 20,833
+        // Up to 66,667: 2,500 + 25% of the amount in excess of 33,333
+        // Up to 166,667: 10,833 + 30% of the amount in excess of 66,667
+        // Up to 666,667: 40,833.33 + 32% of the amount in excess of 166,667
+        // Above: 200,833.33 + 35% of the amount in excess of 666,667
+        if (bracket == 0) {
+            return Money.ZERO;
         }
+        return Money.ofCentavos(BASE_TAX[bracket])
+                .plus(Money.ofCentavos(salary - EXCESS_OVER[bracket]).times(RATE_PERCENT[bracket], 100));
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package services;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import models.WorkLogEntry;
+import utils.MappedCsvScanner;
+
+/**
+ * The WorkLogEntryBinder class binds work log records to WorkLogEntry objects without reflection.
+ * The header is resolved once to the column index of each field, and every record is then turned
+ * into an entry by reading those indices and calling the entry's constructor directly.
+ *
+ * Columns are matched the way OpenCSV's header name mapping matches them: names are trimmed and
+ * compared without regard to case, and when a name appears more than once the last column wins. A
+ * field whose column is missing stays {@code null}. Instead of printing a warning for every empty
+ * value, the binder counts empty values per field and reports the totals once.
+ *
+ * A binder may be used from several threads at once, each binding its own part of a file.
+ */
+final class WorkLogEntryBinder {
+
+    // The header name of each field, in the order of the WorkLogEntry constructor
+    private static final String[] COLUMNS = {
+            "Employee #", "Last Name", "First Name", "Date", "Log In", "Log Out", "Total Worked Hours \nDaily"
+    };
+
+    // The name of each field in warnings
+    private static final String[] LABELS = {
+            "Employee ID", "Last Name", "First Name", "Date", "Log In time", "Log Out time", "Total Worked Hours"
+    };
+
+    private final int headerLength;
+    private final int[] columnIndices = new int[COLUMNS.length];
+    private final AtomicLongArray emptyCounts = new AtomicLongArray(COLUMNS.length);
+
+    /**
+     * Resolves the column of each field in a header.
+     *
+     * @param header The header record.
+     */
+    WorkLogEntryBinder(String[] header) {
+        this.headerLength = header.length;
+        Arrays.fill(columnIndices, -1);
+        for (int column = 0; column < header.length; column++) {
+            String name = header[column] == null ? "" : header[column].trim();
+            for (int field = 0; field < COLUMNS.length; field++) {
+                if (COLUMNS[field].toUpperCase(Locale.ROOT).equals(name.toUpperCase(Locale.ROOT))) {
+                    columnIndices[field] = column; // A later duplicate replaces an earlier one
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a CSV reader with the same parsing settings as the rest of the work log code.
+     *
+     * @param reader The character source.
+     * @return The CSV reader.
+     */
+    static CSVReader openReader(Reader reader) {
+        return new CSVReaderBuilder(reader)
+                .withCSVParser(new CSVParserBuilder().withIgnoreLeadingWhiteSpace(true).build())
+                .build();
+    }
+
+    /**
+     * Binds every remaining record of a CSV reader. The header must already have been read.
+     *
+     * @param reader The CSV reader, positioned after the header.
+     * @return The entries in record order.
+     * @throws IOException           If the records cannot be read.
+     * @throws IllegalStateException If a record does not have as many fields as the header.
+     */
+    List<WorkLogEntry> bind(CSVReader reader) throws IOException {
+        List<WorkLogEntry> entries = new ArrayList<>();
+        long[] empty = new long[COLUMNS.length];
+        String[] values = new String[COLUMNS.length];
+        try {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                if (record.length != headerLength) {
+                    throw new IllegalStateException("Number of data fields (" + record.length
+                            + ") does not match number of headers (" + headerLength + "): "
+                            + Arrays.toString(record));
+                }
+                for (int field = 0; field < COLUMNS.length; field++) {
+                    int column = columnIndices[field];
+                    String value = column < 0 ? null : record[column];
+                    if (column >= 0 && isBlank(value)) {
+                        empty[field]++;
+                    }
+                    values[field] = value;
+                }
+                entries.add(new WorkLogEntry(values[0], values[1], values[2], values[3],
+                        values[4], values[5], values[6]));
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        for (int field = 0; field < COLUMNS.length; field++) {
+            if (empty[field] > 0) {
+                emptyCounts.addAndGet(field, empty[field]);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Binds the records of a byte range of a CSV file straight from the mapped bytes, so only the
+     * fields an entry keeps are turned into strings. The range must begin at a record boundary.
+     *
+     * @param channel The open file channel.
+     * @param from    The offset of the first record to bind.
+     * @param to      The offset at which no new record is started.
+     * @param entries The list the entries are added to, in record order.
+     * @return The offset just after the last record read.
+     * @throws IOException           If the file cannot be mapped.
+     * @throws IllegalStateException If a record does not have as many fields as the header.
+     */
+    long bind(FileChannel channel, long from, long to, List<WorkLogEntry> entries) throws IOException {
+        long[] empty = new long[COLUMNS.length];
+        String[] values = new String[COLUMNS.length];
+        long end = MappedCsvScanner.scan(channel, from, to, (buffer, start, stop, fieldCount) -> {
+            if (fieldCount != headerLength) {
+                throw new IllegalStateException("Number of data fields (" + fieldCount
+                        + ") does not match number of headers (" + headerLength + ")");
+            }
+            for (int field = 0; field < COLUMNS.length; field++) {
+                int column = columnIndices[field];
+                if (column < 0) {
+                    values[field] = null;
+                    continue;
+                }
+                if (isBlank(buffer, start[column], stop[column])) {
+                    empty[field]++;
+                }
+                values[field] = MappedCsvScanner.decodeString(buffer, start[column], stop[column]);
+            }
+            entries.add(new WorkLogEntry(values[0], values[1], values[2], values[3],
+                    values[4], values[5], values[6]));
+        });
+        for (int field = 0; field < COLUMNS.length; field++) {
+            if (empty[field] > 0) {
+                emptyCounts.addAndGet(field, empty[field]);
+            }
+        }
+        return end;
+    }
+
+    private static boolean isBlank(MappedByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((buffer.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same test as WorkLogEntry's setters, value.trim().isEmpty(), without creating a string
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints one warning for each field that was empty in at least one bound record.
+     */
+    void printWarnings() {
+        for (int field = 0; field < COLUMNS.length; field++) {
+            long count = emptyCounts.get(field);
+            if (count > 0) {
+                System.out.println("Warning: " + LABELS[field] + " is required but is empty in "
+                        + count + (count == 1 ? " record." : " records."));
+            }
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package services;
 
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
-import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
 import models.WorkLogEntry;
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import utils.MappedCsvScanner;
 
 /**
  * The Worklogs class provides utility methods for processing work log data from CSV files.
@@ -18,10 +29,28 @@ public class Worklogs {
     // Logger instance using java.util.logging
     private static final Logger logger = Logger.getLogger(Worklogs.class.getName());
 
+    // Byte ranges smaller than this are not worth handing to a separate worker
+    private static final long MIN_RANGE_BYTES = 1L << 20;
+
+    private boolean parallelIngestion;
+
+    /**
+     * Enables or disables parallel ingestion. When enabled, the file is split into byte ranges
+     * aligned to record boundaries and each range is bound to WorkLogEntry objects on a fork-join
+     * worker. The entries are concatenated in file order, so the displayed list matches the
+     * sequential path exactly.
+     *
+     * @param parallelIngestion {@code true} to bind byte ranges in parallel.
+     */
+    public void setParallelIngestion(boolean parallelIngestion) {
+        this.parallelIngestion = parallelIngestion;
+    }
+
     /**
      * Reads work log entries from a CSV file and displays them to the console.
-     * This method uses OpenCSV library to parse the CSV data into WorkLogEntry objects,
-     * utilizing header column name mapping for automatic field population.
+     * This method uses OpenCSV library to parse the CSV records, which a {@link WorkLogEntryBinder}
+     * binds to WorkLogEntry objects by header column name. Empty required values are reported once
+     * per field, after the entries.
      *
      * @param csvFile The path to the CSV file containing work log data
      * @throws RuntimeException If there is an error reading or parsing the CSV file
@@ -31,28 +60,17 @@ public class Worklogs {
         // Log the start of the CSV reading process
         logger.log(Level.INFO, "Reading work log entries from CSV file: {0}", csvFile);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
-            // Log successful file opening
-            logger.log(Level.FINE, "Successfully opened CSV file: {0}", csvFile);
-
-            // Set up the mapping strategy for OpenCSV
-            HeaderColumnNameMappingStrategy<WorkLogEntry> strategy = new HeaderColumnNameMappingStrategy<>();
-            strategy.setType(WorkLogEntry.class);
-
+        try {
             // Parse the CSV file into WorkLogEntry objects
-            CsvToBean<WorkLogEntry> csvToBean = new CsvToBeanBuilder<WorkLogEntry>(reader)
-                    .withMappingStrategy(strategy)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build();
-
-            // Parse and log the number of entries
-            List<WorkLogEntry> workLogEntries = csvToBean.parse();
+            Parsed parsed = parallelIngestion ? parseInParallel(csvFile) : parseSequentially(csvFile);
+            List<WorkLogEntry> workLogEntries = parsed.entries();
             logger.log(Level.INFO, "Successfully parsed {0} work log entries.", workLogEntries.size());
 
-            // Display each work log entry
+            // Display each work log entry, then the empty values found while binding
             for (WorkLogEntry entry : workLogEntries) {
                 System.out.println(entry);
             }
+            parsed.binder().printWarnings();
 
             // Log successful completion
             logger.log(Level.INFO, "Finished displaying work log entries.");
@@ -62,4 +80,87 @@ public class Worklogs {
             e.printStackTrace(); // For debugging purposes
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The entries bound from a file and the binder that bound them.
+     */
+    private record Parsed(List<WorkLogEntry> entries, WorkLogEntryBinder binder) {
+    }
+
+    /**
+     * Parses the whole file on the calling thread.
+     */
+    private Parsed parseSequentially(String csvFile) throws IOException {
+        try (CSVReader reader = WorkLogEntryBinder.openReader(new BufferedReader(new FileReader(csvFile)))) {
+            // Log successful file opening
+            logger.log(Level.FINE, "Successfully opened CSV file: {0}", csvFile);
+            WorkLogEntryBinder binder = new WorkLogEntryBinder(readHeader(reader));
+            return new Parsed(binder.bind(reader), binder);
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges aligned to record boundaries and parses each range on a
+     * fork-join worker. The header is resolved once and every range is bound with the same
+     * binder, so column mapping is the same as in the sequential path. Ranges are bound from the
+     * mapped bytes, so no range is ever held in memory as text.
+     *
+     * Ranges are split at line breaks; if one of them turns out to be inside a quoted field, a range
+     * does not end where the next one starts and the file is parsed sequentially instead.
+     */
+    private Parsed parseInParallel(String csvFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(csvFile), StandardOpenOption.READ)) {
+            long dataStart = MappedCsvScanner.skipHeader(channel);
+            WorkLogEntryBinder binder;
+            try (CSVReader reader = WorkLogEntryBinder.openReader(new StringReader(decode(channel, 0, dataStart)))) {
+                binder = new WorkLogEntryBinder(readHeader(reader));
+            }
+            int parts = ForkJoinPool.getCommonPoolParallelism() * 4;
+            long[] bounds = MappedCsvScanner.splitRanges(channel, dataStart, parts, MIN_RANGE_BYTES);
+            logger.log(Level.FINE, "Parsing {0} byte ranges in parallel.", bounds.length - 1);
+
+            List<List<WorkLogEntry>> ranges;
+            long[] ends = new long[bounds.length - 1];
+            try {
+                ranges = IntStream.range(0, bounds.length - 1)
+                        .parallel()
+                        .mapToObj(i -> {
+                            List<WorkLogEntry> range = new ArrayList<>();
+                            try {
+                                ends[i] = binder.bind(channel, bounds[i], bounds[i + 1], range);
+                            } catch (IllegalStateException e) {
+                                ends[i] = -1; // Possibly a range that starts inside a quoted field
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            return range;
+                        })
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!MappedCsvScanner.endsAt(bounds, ends)) {
+                logger.log(Level.FINE, "A byte range split a quoted field; parsing sequentially.");
+                return parseSequentially(csvFile);
+            }
+            return new Parsed(ranges.stream().flatMap(List::stream).toList(), binder);
+        }
+    }
+
+    private static String[] readHeader(CSVReader reader) throws IOException {
+        try {
+            String[] header = reader.readNext();
+            if (header == null) {
+                throw new IOException("The CSV file has no header.");
+            }
+            return header;
+        } catch (CsvValidationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static String decode(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
@@ -0,0 +1,613 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The ColumnarSnapshot class reads and writes compiled binary snapshots of parsed source files.
+ * A snapshot lives next to its source as {@code <source>.snap} and holds:
+ * <ul>
+ *   <li>a versioned header with a schema name, so a snapshot is never read with the wrong layout,</li>
+ *   <li>the size, modification time and content hash of the source it was compiled from,</li>
+ *   <li>one or more segments of rows, each holding one column per field, stored as a contiguous
+ *       little-endian array.</li>
+ * </ul>
+ * Snapshots are read by memory-mapping the file and bulk-copying each column into a primitive array.
+ *
+ * A source that only grew since its snapshot was written can still use it through
+ * {@link #loadPrefix(Path, String)}: the snapshot then covers the first {@link #getSourceSize()}
+ * bytes and the caller parses the rest. The rows parsed from the appended bytes can be added to
+ * the snapshot as a new segment with {@link Writer#appendFor(Path, FileHash.Running, long)}, which
+ * extends the stored hash state instead of hashing the source again.
+ */
+public final class ColumnarSnapshot {
+
+    // Logger instance using java.util.logging
+    private static final Logger logger = Logger.getLogger(ColumnarSnapshot.class.getName());
+
+    private static final long MAGIC = 0x50414E5348504D4DL; // "MMPHSNAP" read little-endian
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte INT_COLUMN = 1;
+    private static final byte SHORT_COLUMN = 2;
+    private static final byte DOUBLE_COLUMN = 3;
+    private static final byte STRING_COLUMN = 4;
+    private static final byte LONG_COLUMN = 5;
+
+    // Size of the header fields after the schema name, which an append rewrites in place
+    private static final int FIELDS_BYTES = 8 + 8 + FileHash.Running.BYTES + 4 + 4 + 4 + 8;
+
+    private final long sourceSize;
+    private final FileHash.Running sourceHash;
+    private final int rowCount;
+    private final List<Object> columns;
+
+    private ColumnarSnapshot(long sourceSize, FileHash.Running sourceHash, int rowCount, List<Object> columns) {
+        this.sourceSize = sourceSize;
+        this.sourceHash = sourceHash;
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the snapshot path for a source file.
+     *
+     * @param source The source file.
+     * @return The path of its snapshot.
+     */
+    public static Path snapshotPath(Path source) {
+        return source.resolveSibling(source.getFileName() + ".snap");
+    }
+
+    /**
+     * Loads the snapshot of a source file if one exists, was written with the given schema and
+     * still matches the source. A snapshot whose source has a different size or content is stale.
+     *
+     * @param source The source file.
+     * @param schema The schema name the caller expects.
+     * @return The snapshot, or {@code null} if it is missing, stale or unreadable.
+     */
+    public static ColumnarSnapshot load(Path source, String schema) {
+        return load(source, schema, false);
+    }
+
+    /**
+     * Loads the snapshot of a source file that may have been appended to since the snapshot was
+     * written. The snapshot is used as long as the source still starts with the exact bytes it
+     * was compiled from; {@link #getSourceSize()} tells where the appended part begins.
+     *
+     * @param source The source file.
+     * @param schema The schema name the caller expects.
+     * @return The snapshot, or {@code null} if it is missing, unreadable, or the source was rewritten.
+     */
+    public static ColumnarSnapshot loadPrefix(Path source, String schema) {
+        return load(source, schema, true);
+    }
+
+    private static ColumnarSnapshot load(Path source, String schema, boolean allowAppended) {
+        Path snapshot = snapshotPath(source);
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getLong() != MAGIC || buffer.getInt() != FORMAT_VERSION || !schema.equals(readString(buffer))) {
+                logger.log(Level.INFO, "Ignoring snapshot with a different format: {0}", snapshot);
+                return null;
+            }
+            long sourceSize = buffer.getLong();
+            long sourceModified = buffer.getLong();
+            FileHash.Running sourceHash = FileHash.Running.read(buffer);
+            if (sourceHash.length() != sourceSize
+                    || !isFresh(source, sourceSize, sourceModified, sourceHash.value(), allowAppended)) {
+                logger.log(Level.INFO, "Snapshot is stale: {0}", snapshot);
+                return null;
+            }
+
+            int rowCount = buffer.getInt();
+            int columnCount = buffer.getInt();
+            int segmentCount = buffer.getInt();
+            buffer.getLong(); // End of the segments, only needed to append
+            List<Object> columns = new ArrayList<>(columnCount);
+            int filled = 0;
+            for (int segment = 0; segment < segmentCount; segment++) {
+                int segmentRows = buffer.getInt();
+                if (segmentRows > rowCount - filled) {
+                    throw new IllegalStateException("Segment rows exceed the row count");
+                }
+                for (int c = 0; c < columnCount; c++) {
+                    Object values = readColumn(buffer, segmentRows);
+                    if (segment == 0) {
+                        columns.add(segmentCount == 1 ? values : allocateLike(values, rowCount));
+                    }
+                    if (segmentCount > 1) {
+                        copyInto(values, columns.get(c), filled, segmentRows);
+                    }
+                }
+                filled += segmentRows;
+            }
+            if (filled != rowCount) {
+                throw new IllegalStateException("Segments hold " + filled + " of " + rowCount + " rows");
+            }
+            return new ColumnarSnapshot(sourceSize, sourceHash, rowCount, columns);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to read snapshot " + snapshot + ": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static boolean isFresh(Path source, long size, long modified, long hash, boolean allowAppended)
+            throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        if (attributes.size() > size && allowAppended) {
+            // Grown: only valid if the bytes the snapshot was compiled from are still there
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                return FileHash.hash(channel, 0, size) == hash;
+            }
+        }
+        if (attributes.size() != size) {
+            return false;
+        }
+        if (attributes.lastModifiedTime().toMillis() == modified) {
+            return true;
+        }
+        // Same size but touched: only the content hash can tell whether it really changed
+        return FileHash.hash(source) == hash;
+    }
+
+    private static Object allocateLike(Object column, int length) {
+        if (column instanceof int[]) {
+            return new int[length];
+        } else if (column instanceof short[]) {
+            return new short[length];
+        } else if (column instanceof long[]) {
+            return new long[length];
+        } else if (column instanceof double[]) {
+            return new double[length];
+        }
+        return new String[length];
+    }
+
+    private static void copyInto(Object segment, Object column, int offset, int length) {
+        if (segment.getClass() != column.getClass()) {
+            throw new IllegalStateException("Segment column types differ");
+        }
+        System.arraycopy(segment, 0, column, offset, length);
+    }
+
+    private static Object readColumn(ByteBuffer buffer, int rowCount) {
+        byte type = buffer.get();
+        switch (type) {
+            case INT_COLUMN -> {
+                int[] values = new int[rowCount];
+                buffer.asIntBuffer().get(values);
+                buffer.position(buffer.position() + rowCount * Integer.BYTES);
+                return values;
+            }
+            case SHORT_COLUMN -> {
+                short[] values = new short[rowCount];
+                buffer.asShortBuffer().get(values);
+                buffer.position(buffer.position() + rowCount * Short.BYTES);
+                return values;
+            }
+            case DOUBLE_COLUMN -> {
+                double[] values = new double[rowCount];
+                buffer.asDoubleBuffer().get(values);
+                buffer.position(buffer.position() + rowCount * Double.BYTES);
+                return values;
+            }
+            case LONG_COLUMN -> {
+                long[] values = new long[rowCount];
+                buffer.asLongBuffer().get(values);
+                buffer.position(buffer.position() + rowCount * Long.BYTES);
+                return values;
+            }
+            case STRING_COLUMN -> {
+                String[] values = new String[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = readString(buffer);
+                }
+                return values;
+            }
+            default -> throw new IllegalStateException("Unknown column type " + type);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the size the source had when the snapshot was written, i.e. the number of source
+     * bytes the snapshot covers.
+     *
+     * @return The covered source size in bytes.
+     */
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * Returns the content hash of the source bytes the snapshot covers.
+     *
+     * @return The {@link FileHash} of the covered prefix.
+     */
+    public long getSourceHash() {
+        return sourceHash.value();
+    }
+
+    /**
+     * Returns the hash of the covered prefix in a form that can be extended over appended bytes.
+     *
+     * @return A copy of the hash state.
+     */
+    public FileHash.Running getSourceHashState() {
+        return sourceHash.copy();
+    }
+
+    /**
+     * Returns the number of rows in every column.
+     *
+     * @return The row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns an int column.
+     *
+     * @param index The column index.
+     * @return The column values.
+     */
+    public int[] getIntColumn(int index) {
+        return (int[]) columns.get(index);
+    }
+
+    /**
+     * Returns a short column.
+     *
+     * @param index The column index.
+     * @return The column values.
+     */
+    public short[] getShortColumn(int index) {
+        return (short[]) columns.get(index);
+    }
+
+    /**
+     * Returns a long column.
+     *
+     * @param index The column index.
+     * @return The column values.
+     */
+    public long[] getLongColumn(int index) {
+        return (long[]) columns.get(index);
+    }
+
+    /**
+     * Returns a double column.
+     *
+     * @param index The column index.
+     * @return The column values.
+     */
+    public double[] getDoubleColumn(int index) {
+        return (double[]) columns.get(index);
+    }
+
+    /**
+     * Returns a string column.
+     *
+     * @param index The column index.
+     * @return The column values.
+     */
+    public String[] getStringColumn(int index) {
+        return (String[]) columns.get(index);
+    }
+
+    /**
+     * Collects columns and writes them as the snapshot of a source file.
+     */
+    public static final class Writer {
+        private final String schema;
+        private final int rowCount;
+        private final List<Object> columns = new ArrayList<>();
+
+        /**
+         * Constructs a writer for a snapshot with the given schema and row count.
+         *
+         * @param schema   The schema name, checked again on load.
+         * @param rowCount The number of rows in every column.
+         */
+        public Writer(String schema, int rowCount) {
+            this.schema = schema;
+            this.rowCount = rowCount;
+        }
+
+        /**
+         * Adds an int column. Only the first {@code rowCount} values are written.
+         *
+         * @param values The column values.
+         * @return This writer.
+         */
+        public Writer addIntColumn(int[] values) {
+            columns.add(values);
+            return this;
+        }
+
+        /**
+         * Adds a short column. Only the first {@code rowCount} values are written.
+         *
+         * @param values The column values.
+         * @return This writer.
+         */
+        public Writer addShortColumn(short[] values) {
+            columns.add(values);
+            return this;
+        }
+
+        /**
+         * Adds a long column. Only the first {@code rowCount} values are written.
+         *
+         * @param values The column values.
+         * @return This writer.
+         */
+        public Writer addLongColumn(long[] values) {
+            columns.add(values);
+            return this;
+        }
+
+        /**
+         * Adds a double column. Only the first {@code rowCount} values are written.
+         *
+         * @param values The column values.
+         * @return This writer.
+         */
+        public Writer addDoubleColumn(double[] values) {
+            columns.add(values);
+            return this;
+        }
+
+        /**
+         * Adds a string column. Only the first {@code rowCount} values are written.
+         *
+         * @param values The column values.
+         * @return This writer.
+         */
+        public Writer addStringColumn(String[] values) {
+            columns.add(values);
+            return this;
+        }
+
+        /**
+         * Writes the snapshot next to its source. The file is written to a temporary name first and
+         * then moved into place, so readers never see a partial snapshot. Failures are logged and
+         * otherwise ignored; the source can always be parsed again.
+         *
+         * @param source The source file the columns were compiled from.
+         */
+        public void writeFor(Path source) {
+            try {
+                writeFor(source, Files.size(source));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Unable to write snapshot for " + source + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Writes the snapshot for the first {@code coveredSize} bytes of a source. Use this when the
+         * source may have been appended to while it was being parsed, so the snapshot never claims
+         * rows it does not hold.
+         *
+         * @param source      The source file the columns were compiled from.
+         * @param coveredSize The number of source bytes the columns were compiled from.
+         */
+        public void writeFor(Path source, long coveredSize) {
+            FileHash.Running hash;
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                hash = new FileHash.Running().update(channel, 0, coveredSize);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Unable to write snapshot for " + source + ": " + e.getMessage(), e);
+                return;
+            }
+            writeFor(source, hash);
+        }
+
+        /**
+         * Writes the snapshot for the source bytes a hash covers, when the caller has already hashed
+         * them while parsing.
+         *
+         * @param source      The source file the columns were compiled from.
+         * @param coveredHash The hash of the first {@link FileHash.Running#length()} bytes of the source.
+         */
+        public void writeFor(Path source, FileHash.Running coveredHash) {
+            Path snapshot = snapshotPath(source);
+            Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+                byte[] schemaBytes = schema.getBytes(StandardCharsets.UTF_8);
+                long dataStart = 8 + 4 + 4 + schemaBytes.length + FIELDS_BYTES;
+                ByteBuffer segment = encodeSegment();
+
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    ByteBuffer header = ByteBuffer.allocate((int) dataStart).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putLong(MAGIC).putInt(FORMAT_VERSION);
+                    putString(header, schema);
+                    putFields(header, coveredHash, attributes, rowCount, columns.size(), 1,
+                            dataStart + segment.remaining());
+                    writeFully(channel, header.flip());
+                    writeFully(channel, segment);
+                }
+                try {
+                    Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+                }
+                logger.log(Level.INFO, "Wrote snapshot: {0}", snapshot);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Unable to write snapshot " + snapshot + ": " + e.getMessage(), e);
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Nothing more to clean up
+                }
+            }
+        }
+
+        /**
+         * Adds the rows of this writer to the snapshot of a source as a new segment, after rows were
+         * parsed from bytes appended to the source. Only the new rows are written, and the stored
+         * hash is replaced by the caller's, which was extended over the appended bytes. Nothing is
+         * written unless the snapshot on disk covers exactly {@code previousSize} bytes with the same
+         * schema and columns.
+         *
+         * A segment is written past the existing ones before the header is updated to include it, so
+         * an interrupted append leaves the snapshot as it was.
+         *
+         * @param source       The source file the rows were parsed from.
+         * @param coveredHash  The hash of the first {@link FileHash.Running#length()} bytes of the source.
+         * @param previousSize The number of source bytes the snapshot on disk covers.
+         * @return {@code true} if the rows were appended.
+         */
+        public boolean appendFor(Path source, FileHash.Running coveredHash, long previousSize) {
+            Path snapshot = snapshotPath(source);
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                byte[] schemaBytes = schema.getBytes(StandardCharsets.UTF_8);
+                long fieldsStart = 8 + 4 + 4 + schemaBytes.length;
+                ByteBuffer header = ByteBuffer.allocate((int) fieldsStart + FIELDS_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                    // Keep reading until the header is complete or the file ends
+                }
+                if (header.hasRemaining() || header.flip().getLong() != MAGIC || header.getInt() != FORMAT_VERSION
+                        || !schema.equals(readString(header)) || header.getLong() != previousSize) {
+                    return false;
+                }
+                header.getLong(); // Modification time, replaced below
+                FileHash.Running.read(header);
+                int previousRows = header.getInt();
+                int columnCount = header.getInt();
+                int segmentCount = header.getInt();
+                long dataEnd = header.getLong();
+                if (columnCount != columns.size() || (long) previousRows + rowCount > Integer.MAX_VALUE) {
+                    return false;
+                }
+
+                ByteBuffer segment = encodeSegment();
+                long segmentBytes = segment.remaining();
+                channel.truncate(dataEnd); // Drop the remains of an interrupted append
+                while (segment.hasRemaining()) {
+                    channel.write(segment, dataEnd + segment.position());
+                }
+                channel.force(false);
+
+                BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+                ByteBuffer fields = ByteBuffer.allocate(FIELDS_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                putFields(fields, coveredHash, attributes, previousRows + rowCount, columnCount, segmentCount + 1,
+                        dataEnd + segmentBytes);
+                fields.flip();
+                while (fields.hasRemaining()) {
+                    channel.write(fields, fieldsStart + fields.position());
+                }
+                channel.force(false);
+                logger.log(Level.FINE, "Appended {0} rows to snapshot: {1}", new Object[]{rowCount, snapshot});
+                return true;
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Unable to append to snapshot " + snapshot + ": " + e.getMessage(), e);
+                return false;
+            }
+        }
+
+        private static void putFields(ByteBuffer buffer, FileHash.Running coveredHash, BasicFileAttributes attributes,
+                                      int rows, int columnCount, int segmentCount, long dataEnd) {
+            buffer.putLong(coveredHash.length()).putLong(attributes.lastModifiedTime().toMillis());
+            coveredHash.write(buffer);
+            buffer.putInt(rows).putInt(columnCount).putInt(segmentCount).putLong(dataEnd);
+        }
+
+        /**
+         * Encodes the row count followed by every column.
+         */
+        private ByteBuffer encodeSegment() {
+            List<ByteBuffer> encoded = new ArrayList<>(columns.size());
+            int total = Integer.BYTES;
+            for (Object column : columns) {
+                ByteBuffer buffer = encodeColumn(column);
+                encoded.add(buffer);
+                total += buffer.remaining();
+            }
+            ByteBuffer segment = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN).putInt(rowCount);
+            for (ByteBuffer buffer : encoded) {
+                segment.put(buffer);
+            }
+            return segment.flip();
+        }
+
+        private ByteBuffer encodeColumn(Object column) {
+            ByteBuffer buffer;
+            if (column instanceof int[] values) {
+                buffer = ByteBuffer.allocate(1 + rowCount * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(INT_COLUMN);
+                buffer.asIntBuffer().put(values, 0, rowCount);
+                buffer.position(buffer.capacity());
+            } else if (column instanceof short[] values) {
+                buffer = ByteBuffer.allocate(1 + rowCount * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(SHORT_COLUMN);
+                buffer.asShortBuffer().put(values, 0, rowCount);
+                buffer.position(buffer.capacity());
+            } else if (column instanceof long[] values) {
+                buffer = ByteBuffer.allocate(1 + rowCount * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(LONG_COLUMN);
+                buffer.asLongBuffer().put(values, 0, rowCount);
+                buffer.position(buffer.capacity());
+            } else if (column instanceof double[] values) {
+                buffer = ByteBuffer.allocate(1 + rowCount * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(DOUBLE_COLUMN);
+                buffer.asDoubleBuffer().put(values, 0, rowCount);
+                buffer.position(buffer.capacity());
+            } else {
+                String[] values = (String[]) column;
+                byte[][] encoded = new byte[rowCount][];
+                int total = 1;
+                for (int i = 0; i < rowCount; i++) {
+                    encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+                    total += Integer.BYTES + encoded[i].length;
+                }
+                buffer = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.put(STRING_COLUMN);
+                for (byte[] bytes : encoded) {
+                    buffer.putInt(bytes.length).put(bytes);
+                }
+            }
+            return buffer.flip();
+        }
+
+        private static void putString(ByteBuffer buffer, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The FileHash class computes a fast 64-bit content hash over a memory-mapped file.
+ * It is meant for change detection (is this the same file we saw before?), not for security.
+ */
+public final class FileHash {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long SEED = 0x27D4EB2F165667C5L;
+
+    private FileHash() {
+    }
+
+    /**
+     * Hashes the whole content of a file.
+     *
+     * @param file The file to hash.
+     * @return The 64-bit hash.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long hash(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return hash(channel, 0, channel.size());
+        }
+    }
+
+    /**
+     * Hashes the bytes in {@code [from, to)} of an open channel.
+     *
+     * @param channel The open file channel.
+     * @param from    The first byte to hash.
+     * @param to      The end of the range (exclusive).
+     * @return The 64-bit hash.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static long hash(FileChannel channel, long from, long to) throws IOException {
+        return new Running().update(channel, from, to).value();
+    }
+
+    /**
+     * A hash that is extended as more bytes are read, so a file that only grows can be hashed in
+     * full by hashing just the bytes appended since the last update. Hashing a range in one
+     * update or in several consecutive ones gives the same value as {@link #hash(FileChannel, long, long)}.
+     */
+    public static final class Running {
+
+        /** The size of a written state in bytes. */
+        public static final int BYTES = 8 + 8 + 8 + 4;
+
+        private long state = SEED;
+        private long length;
+        // Bytes of an incomplete 8-byte word, waiting for the next update
+        private long pending;
+        private int pendingBytes;
+
+        /**
+         * Constructs the hash of no bytes.
+         */
+        public Running() {
+        }
+
+        private Running(long state, long length, long pending, int pendingBytes) {
+            this.state = state;
+            this.length = length;
+            this.pending = pending;
+            this.pendingBytes = pendingBytes;
+        }
+
+        /**
+         * Returns an independent copy, to be extended without changing this hash.
+         *
+         * @return The copy.
+         */
+        public Running copy() {
+            return new Running(state, length, pending, pendingBytes);
+        }
+
+        /**
+         * Extends the hash over the bytes in {@code [from, to)}, which follow the bytes hashed so far.
+         *
+         * @param channel The open file channel.
+         * @param from    The first byte to hash.
+         * @param to      The end of the range (exclusive).
+         * @return This hash.
+         * @throws IOException If the file cannot be mapped.
+         */
+        public Running update(FileChannel channel, long from, long to) throws IOException {
+            long position = from;
+            while (position < to) {
+                long windowLength = Math.min(to - position, WINDOW_SIZE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                int limit = buffer.limit();
+                int i = 0;
+                // Complete a word left over from the previous update
+                for (; pendingBytes != 0 && i < limit; i++) {
+                    addPendingByte(buffer.get(i));
+                }
+                for (; i + 8 <= limit; i += 8) {
+                    state = mix(state, buffer.getLong(i));
+                }
+                for (; i < limit; i++) {
+                    addPendingByte(buffer.get(i));
+                }
+                position += windowLength;
+            }
+            length += Math.max(to - from, 0);
+            return this;
+        }
+
+        private void addPendingByte(byte b) {
+            pending |= (b & 0xFFL) << (pendingBytes * 8);
+            if (++pendingBytes == 8) {
+                state = mix(state, pending);
+                pending = 0;
+                pendingBytes = 0;
+            }
+        }
+
+        /**
+         * Returns the number of bytes hashed.
+         *
+         * @return The hashed length.
+         */
+        public long length() {
+            return length;
+        }
+
+        /**
+         * Returns the hash of the bytes so far. The hash can still be extended afterwards.
+         *
+         * @return The 64-bit hash.
+         */
+        public long value() {
+            long h = pendingBytes > 0 ? mix(state, pending) : state;
+            return finish(mix(h, length));
+        }
+
+        /**
+         * Writes the state of the hash, so it can be extended later by {@link #read(ByteBuffer)}.
+         *
+         * @param buffer The buffer to write {@link #BYTES} bytes to.
+         */
+        public void write(ByteBuffer buffer) {
+            buffer.putLong(state).putLong(length).putLong(pending).putInt(pendingBytes);
+        }
+
+        /**
+         * Reads a state written by {@link #write(ByteBuffer)}.
+         *
+         * @param buffer The buffer to read {@link #BYTES} bytes from.
+         * @return The hash.
+         */
+        public static Running read(ByteBuffer buffer) {
+            return new Running(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt());
+        }
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value * MULTIPLIER;
+        h = Long.rotateLeft(h, 29);
+        return h * MULTIPLIER + 0x165667B19E3779F9L;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,154 @@
+package utils;
+
+import java.util.Map;
+
+/**
+ * The IntKeyMap class is a read-only map from non-negative {@code int} keys to values, used to join
+ * rows to employees by numeric employee number without string hashing or boxing.
+ *
+ * When the keys are dense, as employee numbers normally are (10001, 10002, ...), values are held in
+ * an array indexed by {@code key - minKey} and a lookup is one bounds check and one array read.
+ * When the keys are too sparse for that, an open-addressing table with linear probing is used.
+ *
+ * @param <V> The value type.
+ */
+public final class IntKeyMap<V> {
+
+    // Dense layout is used while the key range is at most this many times the key count, plus slack
+    private static final int MAX_DENSE_SPREAD = 4;
+    private static final int DENSE_SLACK = 64;
+
+    private final int size;
+
+    // Dense layout
+    private final int minKey;
+    private final Object[] dense;
+
+    // Open-addressing layout; a null value marks an empty slot
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    private IntKeyMap(int[] keys, Object[] values, int size) {
+        this.size = size;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+        }
+
+        long span = size == 0 ? 0 : (long) max - min + 1;
+        if (span <= (long) size * MAX_DENSE_SPREAD + DENSE_SLACK) {
+            this.minKey = size == 0 ? 0 : min;
+            this.dense = new Object[(int) span];
+            for (int i = 0; i < size; i++) {
+                dense[keys[i] - minKey] = values[i];
+            }
+            this.keys = null;
+            this.values = null;
+            this.mask = 0;
+        } else {
+            int capacity = Integer.highestOneBit(Math.max(size * 2 - 1, 1)) << 1;
+            this.minKey = 0;
+            this.dense = null;
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = slot(keys[i]);
+                while (this.values[slot] != null && this.keys[slot] != keys[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = keys[i];
+                this.values[slot] = values[i];
+            }
+        }
+    }
+
+    /**
+     * Builds a map from a map keyed by decimal strings. Only keys written exactly as
+     * {@link Integer#toString(int)} writes a non-negative number are included, so a lookup by the
+     * parsed number finds the same value as a lookup by {@code Integer.toString(number)} in the
+     * source map.
+     *
+     * @param source The map keyed by decimal strings.
+     * @param <V>    The value type.
+     * @return The int-keyed map.
+     */
+    public static <V> IntKeyMap<V> ofDecimalKeys(Map<String, V> source) {
+        int[] keys = new int[source.size()];
+        Object[] values = new Object[source.size()];
+        int count = 0;
+        for (Map.Entry<String, V> entry : source.entrySet()) {
+            int key = parseCanonical(entry.getKey());
+            if (key >= 0 && entry.getValue() != null) {
+                keys[count] = key;
+                values[count] = entry.getValue();
+                count++;
+            }
+        }
+        return new IntKeyMap<>(keys, values, count);
+    }
+
+    /**
+     * Returns the value of a decimal string with no sign, leading zeros or other characters, or -1.
+     */
+    private static int parseCanonical(String key) {
+        if (key == null || key.isEmpty() || key.length() > 10 || (key.length() > 1 && key.charAt(0) == '0')) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= Integer.MAX_VALUE ? (int) value : -1;
+    }
+
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9; // Fibonacci hashing spreads consecutive keys
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the value for a key.
+     *
+     * @param key The key.
+     * @return The value, or {@code null} if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (dense != null) {
+            int index = key - minKey;
+            return index >= 0 && index < dense.length ? (V) dense[index] : null;
+        }
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return The key count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the keys are held in a dense array.
+     *
+     * @return {@code true} for the dense layout, {@code false} for open addressing.
+     */
+    public boolean isDense() {
+        return dense != null;
+    }
+}
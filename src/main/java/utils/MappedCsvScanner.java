@@ -0,0 +1,468 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The MappedCsvScanner class tokenizes a CSV file directly from a memory-mapped
+ * {@link FileChannel} without creating a {@code String} for every field.
+ * Each record is handed to a {@link RecordVisitor} as byte offsets into the mapped
+ * buffer, and the static decode helpers turn those bytes straight into primitives.
+ *
+ * Quoted fields (including the multi-line header of attendance.csv) are handled:
+ * line breaks inside quotes do not end a record.
+ *
+ * Files are split for parallel scanning at plain line breaks, which is only right when the break
+ * is not inside a quoted field. {@link #scan} returns where its last record really ended, so a
+ * caller can check that every range ended exactly where the next one starts; if one did not, a
+ * split fell inside a quoted field and the region has to be scanned sequentially instead.
+ */
+public final class MappedCsvScanner {
+
+    // Largest region mapped at once; records never straddle two windows
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    // Region mapped while probing for the next line break
+    private static final long PROBE_SIZE = 1L << 16;
+
+    // Maximum number of fields tracked per record
+    private static final int MAX_FIELDS = 64;
+
+    /**
+     * Receives one record at a time. The field offsets are only valid for the duration of the call.
+     */
+    public interface RecordVisitor {
+
+        /**
+         * Visits a single record.
+         *
+         * @param buffer     The mapped buffer holding the record.
+         * @param fieldStart Start offset of each field (exclusive of quotes).
+         * @param fieldEnd   End offset of each field (exclusive of quotes).
+         * @param fieldCount The number of fields in the record.
+         */
+        void visit(MappedByteBuffer buffer, int[] fieldStart, int[] fieldEnd, int fieldCount);
+    }
+
+    private MappedCsvScanner() {
+    }
+
+    /**
+     * Returns the byte offset of the first record after the header. The header may span several
+     * physical lines when it contains quoted line breaks.
+     *
+     * @param channel The open file channel.
+     * @return The offset of the first data record.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static long skipHeader(FileChannel channel) throws IOException {
+        long size = channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_SIZE));
+        boolean quoted = false;
+        for (int i = 0; i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return i + 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Splits the data region starting at {@code dataStart} into at most {@code parts} byte ranges,
+     * each beginning just after a line break. A line break inside a quoted field is not recognised
+     * here, so callers must check the ranges with {@link #endsAt(long[], long[])}.
+     *
+     * @param channel       The open file channel.
+     * @param dataStart     The offset of the first data record.
+     * @param parts         The desired number of ranges.
+     * @param minRangeBytes The smallest range worth splitting off.
+     * @return The range boundaries; range {@code i} is {@code [bounds[i], bounds[i + 1])}.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static long[] splitRanges(FileChannel channel, long dataStart, int parts, long minRangeBytes) throws IOException {
+        return splitRanges(channel, dataStart, channel.size(), parts, minRangeBytes);
+    }
+
+    /**
+     * Splits the region {@code [dataStart, end)} into at most {@code parts} byte ranges, each
+     * beginning just after a line break. Used to read only the part of a file that was appended
+     * after an earlier read.
+     *
+     * @param channel       The open file channel.
+     * @param dataStart     The offset of the first record to include.
+     * @param end           The end of the region; normally the file size.
+     * @param parts         The desired number of ranges.
+     * @param minRangeBytes The smallest range worth splitting off.
+     * @return The range boundaries; range {@code i} is {@code [bounds[i], bounds[i + 1])}.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static long[] splitRanges(FileChannel channel, long dataStart, long end, int parts, long minRangeBytes)
+            throws IOException {
+        long size = Math.min(end, channel.size());
+        long length = Math.max(size - dataStart, 0);
+        int count = (int) Math.max(1, Math.min(parts, length / Math.max(minRangeBytes, 1)));
+        long[] bounds = new long[count + 1];
+        bounds[0] = dataStart;
+        int filled = 1;
+
+        for (int i = 1; i < count; i++) {
+            long target = dataStart + length * i / count;
+            if (target <= bounds[filled - 1]) {
+                continue;
+            }
+            long boundary = nextLineStart(channel, target, size);
+            if (boundary > bounds[filled - 1] && boundary < size) {
+                bounds[filled++] = boundary;
+            }
+        }
+        bounds[filled++] = size;
+        return filled == bounds.length ? bounds : Arrays.copyOf(bounds, filled);
+    }
+
+    /**
+     * Returns whether every range, scanned from its start, ended exactly where the next range
+     * begins. Since the first range starts at a record boundary, this holds only if every range
+     * does, i.e. no split fell inside a quoted field.
+     *
+     * @param bounds The range boundaries from {@link #splitRanges}.
+     * @param ends   What {@link #scan} returned for each range, or -1 for a range that could not be read.
+     * @return {@code true} if the ranges can be used as scanned.
+     */
+    public static boolean endsAt(long[] bounds, long[] ends) {
+        for (int i = 0; i < ends.length; i++) {
+            if (ends[i] < 0 || i + 1 < ends.length && ends[i] != bounds[i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the offset just after the first line break at or after {@code from}.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            long length = Math.min(size - position, PROBE_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    /**
+     * Returns whether {@code offset} can be the start of a record: the start of the file, or just
+     * after a line break. Only the byte before the offset is read; whether that line break is inside
+     * a quoted field is for the caller to know, for instance by counting quotes with
+     * {@link #countQuotes} as it consumes the file.
+     *
+     * @param channel The open file channel.
+     * @param offset  The offset to check.
+     * @return {@code true} if a record can start at the offset.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isLineStart(FileChannel channel, long offset) throws IOException {
+        if (offset == 0) {
+            return true;
+        }
+        if (offset > channel.size()) {
+            return false;
+        }
+        MappedByteBuffer last = channel.map(FileChannel.MapMode.READ_ONLY, offset - 1, 1);
+        return last.get(0) == '\n';
+    }
+
+    /**
+     * Counts the quote characters in {@code [from, to)}. An escaped quote counts twice, so a region
+     * that starts outside quotes ends outside them exactly when the count is even.
+     *
+     * @param channel The open file channel.
+     * @param from    The first offset to count.
+     * @param to      The offset to stop at.
+     * @return The number of quotes.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long countQuotes(FileChannel channel, long from, long to) throws IOException {
+        long quotes = 0;
+        for (long position = from; position < to; position += WINDOW_SIZE) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(to - position, WINDOW_SIZE));
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '"') {
+                    quotes++;
+                }
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Scans all records in the byte range {@code [start, end)}. The range must begin at a
+     * record boundary; a record that starts before {@code end} is read to its end.
+     *
+     * @param channel The open file channel.
+     * @param start   The offset of the first record to read.
+     * @param end     The offset at which no new record is started.
+     * @param visitor The visitor receiving each record.
+     * @return The offset just after the last record read.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static long scan(FileChannel channel, long start, long end, RecordVisitor visitor) throws IOException {
+        long size = channel.size();
+        int[] fieldStart = new int[MAX_FIELDS];
+        int[] fieldEnd = new int[MAX_FIELDS];
+        long position = start;
+
+        while (position < end && position < size) {
+            long windowLength = Math.min(size - position, WINDOW_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+            boolean lastWindow = position + windowLength >= size;
+            int limit = buffer.limit();
+            int stopAt = (int) Math.min(end - position, limit);
+            int recordStart = 0;
+
+            while (recordStart < stopAt) {
+                int next = scanRecord(buffer, recordStart, limit, lastWindow, fieldStart, fieldEnd, visitor);
+                if (next < 0) {
+                    break; // Record continues past this window; remap from its start
+                }
+                recordStart = next;
+            }
+
+            if (recordStart == 0 && !lastWindow) {
+                throw new IOException("CSV record larger than " + WINDOW_SIZE + " bytes at offset " + position);
+            }
+            position += recordStart;
+            if (lastWindow) {
+                break;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Tokenizes one record starting at {@code from} and hands it to the visitor.
+     *
+     * @return The offset just after the record, or -1 if the record is cut off by the window.
+     */
+    private static int scanRecord(MappedByteBuffer buffer, int from, int limit, boolean lastWindow,
+                                  int[] fieldStart, int[] fieldEnd, RecordVisitor visitor) {
+        int fieldCount = 0;
+        int i = from;
+        int begin = from;
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (quoted) {
+                if (b == '"') {
+                    if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                        i += 2; // Escaped quote inside a quoted field
+                        continue;
+                    }
+                    quoted = false;
+                }
+                i++;
+                continue;
+            }
+            if (b == '"' && i == begin) {
+                quoted = true;
+                wasQuoted = true;
+                i++;
+                continue;
+            }
+            if (b == ',' || b == '\n') {
+                if (fieldCount < MAX_FIELDS) {
+                    setField(buffer, begin, i, wasQuoted, fieldStart, fieldEnd, fieldCount);
+                }
+                fieldCount++;
+                begin = i + 1;
+                wasQuoted = false;
+                if (b == '\n') {
+                    visitor.visit(buffer, fieldStart, fieldEnd, Math.min(fieldCount, MAX_FIELDS));
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+
+        if (!lastWindow) {
+            return -1;
+        }
+        // Final record without a trailing line break
+        if (fieldCount < MAX_FIELDS) {
+            setField(buffer, begin, limit, wasQuoted, fieldStart, fieldEnd, fieldCount);
+        }
+        fieldCount++;
+        visitor.visit(buffer, fieldStart, fieldEnd, Math.min(fieldCount, MAX_FIELDS));
+        return limit;
+    }
+
+    private static void setField(MappedByteBuffer buffer, int begin, int end, boolean wasQuoted,
+                                 int[] fieldStart, int[] fieldEnd, int index) {
+        if (end > begin && buffer.get(end - 1) == '\r') {
+            end--; // Tolerate CRLF line endings
+        }
+        if (wasQuoted) {
+            begin++;
+            if (end > begin && buffer.get(end - 1) == '"') {
+                end--;
+            }
+        }
+        fieldStart[index] = begin;
+        fieldEnd[index] = end;
+    }
+
+    /**
+     * Materializes a field as a string, collapsing escaped double quotes.
+     *
+     * @return The field text.
+     */
+    public static String decodeString(MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            bytes[length++] = b;
+            if (b == '"' && i + 1 < end && buffer.get(i + 1) == '"') {
+                i++;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes an unsigned decimal integer.
+     *
+     * @return The value, or -1 if the field is empty or not a number.
+     */
+    public static int parseInt(MappedByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes an {@code MM/dd/yyyy} date into a day count since 1970-01-01.
+     *
+     * @return The epoch day, or {@link Integer#MIN_VALUE} if the field is not a valid date.
+     */
+    public static int parseEpochDay(MappedByteBuffer buffer, int start, int end) {
+        int month = 0;
+        int day = 0;
+        int year = 0;
+        int part = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '/') {
+                if (digits == 0 || ++part > 2) {
+                    return Integer.MIN_VALUE;
+                }
+                digits = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.MIN_VALUE;
+            }
+            if (part == 0) {
+                month = month * 10 + digit;
+            } else if (part == 1) {
+                day = day * 10 + digit;
+            } else {
+                year = year * 10 + digit;
+            }
+            digits++;
+        }
+        if (part != 2 || digits != 4) {
+            return Integer.MIN_VALUE;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Decodes an {@code H:mm} clock time into minutes after midnight.
+     *
+     * @return The minute of the day, or -1 if the field is not a valid time.
+     */
+    public static int parseMinuteOfDay(MappedByteBuffer buffer, int start, int end) {
+        int hours = 0;
+        int minutes = 0;
+        int hourDigits = 0;
+        int minuteDigits = 0;
+        boolean afterColon = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == ':' && !afterColon) {
+                afterColon = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            if (afterColon) {
+                minutes = minutes * 10 + digit;
+                minuteDigits++;
+            } else {
+                hours = hours * 10 + digit;
+                hourDigits++;
+            }
+        }
+        if (hourDigits < 1 || hourDigits > 2 || minuteDigits != 2 || hours > 23 || minutes > 59) {
+            return -1;
+        }
+        return hours * 60 + minutes;
+    }
+
+    /**
+     * Converts a proleptic Gregorian date to its epoch day without allocating a LocalDate.
+     *
+     * @param year  The year.
+     * @param month The month (1-12).
+     * @param day   The day of the month.
+     * @return The number of days since 1970-01-01.
+     */
+    public static int toEpochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        int dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
@@ -0,0 +1,273 @@
+package utils;
+
+/**
+ * The Money class is a fixed-point peso amount stored as a whole number of centavos.
+ * Sums and differences are exact, and every operation that can produce a fraction of a centavo
+ * (rates, shares, hourly pay) rounds half-up, away from zero, the way amounts are rounded on a
+ * payslip. Values are immutable.
+ *
+ * Amounts are parsed straight from text such as {@code "90,000"} or {@code "535.71"} without
+ * creating intermediate strings; see {@link #parseCentavos(CharSequence)}.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Zero pesos. */
+    public static final Money ZERO = new Money(0);
+
+    private static final long CENTAVOS_PER_PESO = 100;
+
+    private final long centavos;
+
+    private Money(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Returns an amount of whole and fractional pesos expressed in centavos.
+     *
+     * @param centavos The amount in centavos.
+     * @return The amount.
+     */
+    public static Money ofCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Money(centavos);
+    }
+
+    /**
+     * Returns an amount of whole pesos.
+     *
+     * @param pesos The amount in pesos.
+     * @return The amount.
+     */
+    public static Money ofPesos(long pesos) {
+        return ofCentavos(Math.multiplyExact(pesos, CENTAVOS_PER_PESO));
+    }
+
+    /**
+     * Converts a peso amount held in a {@code double}, rounding to the nearest centavo.
+     *
+     * @param pesos The amount in pesos.
+     * @return The amount.
+     */
+    public static Money of(double pesos) {
+        return ofCentavos(Math.round(pesos * CENTAVOS_PER_PESO));
+    }
+
+    /**
+     * Parses an amount such as {@code "90,000"}, {@code "1,234.5"} or {@code "-0.75"}.
+     *
+     * @param text The amount text.
+     * @return The amount.
+     * @throws NumberFormatException If the text is not an amount.
+     */
+    public static Money parse(CharSequence text) {
+        return ofCentavos(parseCentavos(text));
+    }
+
+    /**
+     * Parses an amount into centavos without allocating. Leading and trailing blanks are ignored,
+     * commas between digits are skipped, and digits beyond the second decimal place are rounded
+     * half-up. Numbers in exponent form, as spreadsheets sometimes render large values, are also
+     * accepted.
+     *
+     * @param text The amount text.
+     * @return The amount in centavos.
+     * @throws NumberFormatException If the text is empty or not an amount.
+     */
+    public static long parseCentavos(CharSequence text) {
+        int end = text.length();
+        int i = 0;
+        while (i < end && text.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long pesos = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        boolean inFraction = false;
+        boolean anyDigit = false;
+
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                int digit = c - '0';
+                if (!inFraction) {
+                    pesos = Math.addExact(Math.multiplyExact(pesos, 10), digit);
+                } else if (fractionDigits < 2) {
+                    fraction = fraction * 10 + digit;
+                    fractionDigits++;
+                } else if (fractionDigits == 2) {
+                    roundUp = digit >= 5; // Only the third decimal place decides the rounding
+                    fractionDigits++;
+                }
+            } else if (c == ',' && !inFraction && anyDigit) {
+                continue;
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else if ((c == 'E' || c == 'e') && anyDigit) {
+                return Math.round(Double.parseDouble(text.subSequence(0, end).toString().replace(",", ""))
+                        * CENTAVOS_PER_PESO);
+            } else {
+                throw new NumberFormatException("Not an amount: \"" + text + "\"");
+            }
+        }
+        if (!anyDigit) {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long centavos = Math.addExact(Math.multiplyExact(pesos, CENTAVOS_PER_PESO), fraction + (roundUp ? 1 : 0));
+        return negative ? -centavos : centavos;
+    }
+
+    /**
+     * Returns the amount in centavos.
+     *
+     * @return The centavos.
+     */
+    public long getCentavos() {
+        return centavos;
+    }
+
+    /**
+     * Returns the amount in pesos as a {@code double}, for display code that formats doubles.
+     *
+     * @return The amount in pesos.
+     */
+    public double toDouble() {
+        return centavos / (double) CENTAVOS_PER_PESO;
+    }
+
+    /**
+     * Returns whether the amount is below zero.
+     *
+     * @return {@code true} if negative.
+     */
+    public boolean isNegative() {
+        return centavos < 0;
+    }
+
+    /**
+     * Adds an amount.
+     *
+     * @param other The amount to add.
+     * @return The sum.
+     */
+    public Money plus(Money other) {
+        return ofCentavos(Math.addExact(centavos, other.centavos));
+    }
+
+    /**
+     * Subtracts an amount.
+     *
+     * @param other The amount to subtract.
+     * @return The difference.
+     */
+    public Money minus(Money other) {
+        return ofCentavos(Math.subtractExact(centavos, other.centavos));
+    }
+
+    /**
+     * Multiplies by the fraction {@code numerator / denominator}, rounding half-up to the centavo.
+     * Rates are expressed this way so they stay exact, e.g. 3% is {@code times(3, 100)} and
+     * 8.25 hours at an hourly rate is {@code times(825, 100)}.
+     *
+     * @param numerator   The numerator of the factor.
+     * @param denominator The denominator of the factor; must be positive.
+     * @return The product.
+     */
+    public Money times(long numerator, long denominator) {
+        return ofCentavos(roundedDivide(Math.multiplyExact(centavos, numerator), denominator));
+    }
+
+    /**
+     * Divides into equal parts, rounding half-up to the centavo.
+     *
+     * @param divisor The number of parts; must be positive.
+     * @return The quotient.
+     */
+    public Money divide(long divisor) {
+        return ofCentavos(roundedDivide(centavos, divisor));
+    }
+
+    /**
+     * Returns the larger of two amounts.
+     *
+     * @param a The first amount.
+     * @param b The second amount.
+     * @return The larger amount.
+     */
+    public static Money max(Money a, Money b) {
+        return a.centavos >= b.centavos ? a : b;
+    }
+
+    /**
+     * Returns the smaller of two amounts.
+     *
+     * @param a The first amount.
+     * @param b The second amount.
+     * @return The smaller amount.
+     */
+    public static Money min(Money a, Money b) {
+        return a.centavos <= b.centavos ? a : b;
+    }
+
+    /**
+     * Divides and rounds half-up, away from zero.
+     *
+     * @param dividend The dividend.
+     * @param divisor  The divisor; must be positive.
+     * @return The rounded quotient.
+     */
+    public static long roundedDivide(long dividend, long divisor) {
+        if (divisor <= 0) {
+            throw new ArithmeticException("Divisor must be positive: " + divisor);
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(centavos, other.centavos);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Money other && other.centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    /**
+     * Returns the amount with two decimal places and no grouping, e.g. {@code "90000.00"}, the
+     * same text {@code %.2f} produces for the equivalent double.
+     *
+     * @return The formatted amount.
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(centavos);
+        long fraction = abs % CENTAVOS_PER_PESO;
+        return (centavos < 0 ? "-" : "") + abs / CENTAVOS_PER_PESO + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The StringDictionary class encodes strings as small int codes. Each distinct string is stored
+ * once; records that repeat the same few values (names in every attendance row, statuses,
+ * positions) keep a 4-byte code instead of their own String object and turn it back into the
+ * string only when it is displayed.
+ *
+ * Codes are assigned in order of first use and never change. {@code null} is encoded as -1.
+ * The dictionary is safe to use from several threads; encoding a string already present takes no
+ * lock. Entries are never removed, so it is meant for low-cardinality values.
+ */
+public final class StringDictionary {
+
+    /** The code of {@code null}. */
+    public static final int NULL_CODE = -1;
+
+    private static final StringDictionary SHARED = new StringDictionary();
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[256];
+    private int size;
+
+    /**
+     * Returns the dictionary shared by the models.
+     *
+     * @return The shared dictionary.
+     */
+    public static StringDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the code of a string, adding the string if it is new.
+     *
+     * @param value The string, or {@code null}.
+     * @return The code.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code; // Added by another thread meanwhile
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current; // Publish the value before its code can be seen
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Returns the string of a code.
+     *
+     * @param code A code returned by {@link #encode(String)}.
+     * @return The string, or {@code null} for {@link #NULL_CODE}.
+     */
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    /**
+     * Returns the number of distinct strings.
+     *
+     * @return The dictionary size.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,259 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * The XlsxRowStreamer class reads the first sheet of an .xlsx workbook with POI's event API.
+ * The sheet XML is parsed with SAX and each row is handed to a {@link RowHandler} as soon as it
+ * ends, so memory use stays roughly constant no matter how many rows the sheet has.
+ *
+ * Cell values are rendered the same way the readers render XSSFWorkbook cells: strings as-is,
+ * numbers through {@link String#valueOf(double)} and booleans as "true"/"false".
+ */
+public final class XlsxRowStreamer {
+
+    /**
+     * Receives rows in sheet order.
+     */
+    public interface RowHandler {
+
+        /**
+         * Handles one row. The row object is reused and must not be kept after the call.
+         *
+         * @param row The current row.
+         */
+        void handleRow(XlsxRow row);
+    }
+
+    /**
+     * A reusable view of the row currently being streamed.
+     */
+    public static final class XlsxRow {
+        private String[] values = new String[32];
+        private int rowNum;
+        private int lastCellNum;
+        private int physicalCells;
+
+        /**
+         * Returns the zero-based row index.
+         *
+         * @return The row index.
+         */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * Returns one more than the index of the last cell present in the row.
+         *
+         * @return The last cell number.
+         */
+        public int getLastCellNum() {
+            return lastCellNum;
+        }
+
+        /**
+         * Returns the number of cells present in the row.
+         *
+         * @return The number of physical cells.
+         */
+        public int getPhysicalNumberOfCells() {
+            return physicalCells;
+        }
+
+        /**
+         * Returns the value of a cell as a string.
+         *
+         * @param column The zero-based column index.
+         * @return The cell's value, or an empty string for missing cells.
+         */
+        public String getCellValue(int column) {
+            if (column >= lastCellNum || values[column] == null) {
+                return "";
+            }
+            return values[column];
+        }
+
+        private void reset(int rowNum) {
+            Arrays.fill(values, 0, lastCellNum, null);
+            this.rowNum = rowNum;
+            this.lastCellNum = 0;
+            this.physicalCells = 0;
+        }
+
+        private void set(int column, String value) {
+            if (column >= values.length) {
+                values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+            }
+            values[column] = value;
+            lastCellNum = Math.max(lastCellNum, column + 1);
+            physicalCells++;
+        }
+    }
+
+    private XlsxRowStreamer() {
+    }
+
+    /**
+     * Streams every row of the first sheet to the handler.
+     *
+     * @param filePath    The path to the .xlsx file.
+     * @param formatDates {@code true} to render date-formatted numeric cells as dates.
+     * @param handler     The handler receiving each row.
+     * @throws IOException If the workbook cannot be read or parsed.
+     */
+    public static void stream(String filePath, boolean formatDates, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = formatDates ? reader.getStylesTable() : null;
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(sharedStrings, styles, handler));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | javax.xml.parsers.ParserConfigurationException e) {
+            throw new IOException("Unable to stream workbook " + filePath + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * SAX handler for the sheet XML. It tracks the current cell's reference, type and style and
+     * collects the text of its value element.
+     */
+    private static final class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final RowHandler handler;
+        private final XlsxRow row = new XlsxRow();
+        private final StringBuilder text = new StringBuilder();
+
+        private int nextRowNum;
+        private int nextColumn;
+        private int column;
+        private String cellType;
+        private int styleIndex;
+        private boolean collecting;
+        private boolean hasValue;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, RowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    int rowNum = r != null ? Integer.parseInt(r) - 1 : nextRowNum;
+                    row.reset(rowNum);
+                    nextRowNum = rowNum + 1;
+                    nextColumn = 0;
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : nextColumn;
+                    nextColumn = column + 1;
+                    cellType = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s != null ? Integer.parseInt(s) : 0;
+                    hasValue = false;
+                    text.setLength(0);
+                }
+                case "v", "t" -> {
+                    collecting = true;
+                    if (!hasValue) {
+                        text.setLength(0);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> {
+                    collecting = false;
+                    hasValue = true;
+                }
+                case "c" -> {
+                    if (hasValue) {
+                        row.set(column, render());
+                    }
+                }
+                case "row" -> handler.handleRow(row);
+                default -> {
+                }
+            }
+        }
+
+        private String render() {
+            String raw = text.toString();
+            if (cellType == null || cellType.equals("n")) {
+                double value = Double.parseDouble(raw);
+                if (styles != null && isDateFormatted(value)) {
+                    return DateUtil.getJavaDate(value).toString();
+                }
+                return String.valueOf(value);
+            }
+            return switch (cellType) {
+                case "s" -> sharedStrings.getItemAt(Integer.parseInt(raw)).getString();
+                case "b" -> String.valueOf(raw.equals("1"));
+                case "e" -> "";
+                default -> raw; // inlineStr and formula string results
+            };
+        }
+
+        private boolean isDateFormatted(double value) {
+            XSSFCellStyle style = styles.getStyleAt(styleIndex);
+            return style != null
+                    && DateUtil.isValidExcelDate(value)
+                    && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+
+        private static int columnIndex(String ref) {
+            int index = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                index = index * 26 + (c - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}